@@ -0,0 +1,59 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cloudfoundry.client.lib;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of an operation applied to several applications: the applications it succeeded for, and the failure for
+ * each of the others.
+ */
+public class BulkOperationResult {
+
+	private final List<String> succeeded;
+
+	private final Map<String, RuntimeException> failures;
+
+	public BulkOperationResult(List<String> succeeded, Map<String, RuntimeException> failures) {
+		this.succeeded = Collections.unmodifiableList(succeeded);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * @return the names of the applications the operation succeeded for
+	 */
+	public List<String> getSucceeded() {
+		return succeeded;
+	}
+
+	/**
+	 * @return the failure of the operation for each application it failed for, keyed by application name
+	 */
+	public Map<String, RuntimeException> getFailures() {
+		return failures;
+	}
+
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "BulkOperationResult [succeeded=" + succeeded + ", failures=" + failures.keySet() + "]";
+	}
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.io.File;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.client.lib.domain.ApplicationLog;
+import org.cloudfoundry.client.lib.domain.ApplicationStats;
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudDomain;
+import org.cloudfoundry.client.lib.domain.CloudOrganization;
+import org.cloudfoundry.client.lib.domain.CloudRoute;
+import org.cloudfoundry.client.lib.domain.CloudService;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.domain.InstancesInfo;
+import org.cloudfoundry.client.lib.util.BoundedTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Runs the operations of a {@link CloudFoundryOperations} asynchronously on a fixed number of threads. This is a
+ * facade over the blocking client, not non-blocking I/O: each running operation holds one pool thread, blocked for
+ * as long as its requests are in flight. Calls beyond the number of threads are queued rather than given a thread
+ * each, so they wait for a thread to become free.
+ */
+public class CloudFoundryAsyncClient implements CloudFoundryAsyncOperations {
+
+	public static final int DEFAULT_THREADS = 8;
+
+	private static final AtomicInteger clientCount = new AtomicInteger();
+
+	private final CloudFoundryOperations client;
+
+	private final ExecutorService executor;
+
+	private final boolean ownsExecutor;
+
+	public CloudFoundryAsyncClient(CloudFoundryOperations client) {
+		this(client, DEFAULT_THREADS);
+	}
+
+	/**
+	 * @param client the client running the operations
+	 * @param threads the maximum number of operations running at the same time
+	 */
+	public CloudFoundryAsyncClient(CloudFoundryOperations client, int threads) {
+		this(client, createExecutor(threads), true);
+	}
+
+	/**
+	 * @param client the client running the operations
+	 * @param executor the executor running the operations, which stays owned by the caller
+	 */
+	public CloudFoundryAsyncClient(CloudFoundryOperations client, ExecutorService executor) {
+		this(client, executor, false);
+	}
+
+	private CloudFoundryAsyncClient(CloudFoundryOperations client, ExecutorService executor, boolean ownsExecutor) {
+		Assert.notNull(client, "Client cannot be null");
+		Assert.notNull(executor, "Executor cannot be null");
+		this.client = client;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	/**
+	 * Wait for all the given operations to complete.
+	 *
+	 * @param futures the results of asynchronous operations
+	 * @return the results of the operations, in order
+	 * @throws RuntimeException the failure of the first failed operation, in order
+	 */
+	public static <T> List<T> getAll(Collection<? extends Future<T>> futures) {
+		List<T> results = new ArrayList<T>(futures.size());
+		try {
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CloudOperationException(e);
+		} catch (ExecutionException e) {
+			throw BoundedTaskExecutor.unwrap(e.getCause());
+		}
+		return results;
+	}
+
+	public Future<List<CloudApplication>> getApplications() {
+		return executor.submit(new Callable<List<CloudApplication>>() {
+			public List<CloudApplication> call() {
+				return client.getApplications();
+			}
+		});
+	}
+
+	public Future<CloudApplication> getApplication(final String appName) {
+		return executor.submit(new Callable<CloudApplication>() {
+			public CloudApplication call() {
+				return client.getApplication(appName);
+			}
+		});
+	}
+
+	public Future<ApplicationStats> getApplicationStats(final String appName) {
+		return executor.submit(new Callable<ApplicationStats>() {
+			public ApplicationStats call() {
+				return client.getApplicationStats(appName);
+			}
+		});
+	}
+
+	public Future<InstancesInfo> getApplicationInstances(final String appName) {
+		return executor.submit(new Callable<InstancesInfo>() {
+			public InstancesInfo call() {
+				return client.getApplicationInstances(appName);
+			}
+		});
+	}
+
+	public Future<Void> uploadApplication(final String appName, final File file) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() throws Exception {
+				client.uploadApplication(appName, file);
+				return null;
+			}
+		});
+	}
+
+	public Future<StartingInfo> startApplication(final String appName) {
+		return executor.submit(new Callable<StartingInfo>() {
+			public StartingInfo call() {
+				return client.startApplication(appName);
+			}
+		});
+	}
+
+	public Future<Void> stopApplication(final String appName) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.stopApplication(appName);
+				return null;
+			}
+		});
+	}
+
+	public Future<StartingInfo> restartApplication(final String appName) {
+		return executor.submit(new Callable<StartingInfo>() {
+			public StartingInfo call() {
+				return client.restartApplication(appName);
+			}
+		});
+	}
+
+	public Future<Void> deleteApplication(final String appName) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.deleteApplication(appName);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> updateApplicationInstances(final String appName, final int instances) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.updateApplicationInstances(appName, instances);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> updateApplicationMemory(final String appName, final int memory) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.updateApplicationMemory(appName, memory);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> updateApplicationDiskQuota(final String appName, final int disk) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.updateApplicationDiskQuota(appName, disk);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> updateApplicationUris(final String appName, final List<String> uris) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.updateApplicationUris(appName, uris);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> updateApplicationServices(final String appName, final List<String> services) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.updateApplicationServices(appName, services);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> updateApplicationEnv(final String appName, final Map<String, String> env) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.updateApplicationEnv(appName, env);
+				return null;
+			}
+		});
+	}
+
+	public Future<List<ApplicationLog>> getRecentLogs(final String appName) {
+		return executor.submit(new Callable<List<ApplicationLog>>() {
+			public List<ApplicationLog> call() {
+				return client.getRecentLogs(appName);
+			}
+		});
+	}
+
+	public Future<List<CloudService>> getServices() {
+		return executor.submit(new Callable<List<CloudService>>() {
+			public List<CloudService> call() {
+				return client.getServices();
+			}
+		});
+	}
+
+	public Future<CloudService> getService(final String service) {
+		return executor.submit(new Callable<CloudService>() {
+			public CloudService call() {
+				return client.getService(service);
+			}
+		});
+	}
+
+	public Future<Void> createService(final CloudService service) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.createService(service);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> deleteService(final String service) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.deleteService(service);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> bindService(final String appName, final String serviceName) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.bindService(appName, serviceName);
+				return null;
+			}
+		});
+	}
+
+	public Future<Void> unbindService(final String appName, final String serviceName) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() {
+				client.unbindService(appName, serviceName);
+				return null;
+			}
+		});
+	}
+
+	public Future<List<CloudSpace>> getSpaces() {
+		return executor.submit(new Callable<List<CloudSpace>>() {
+			public List<CloudSpace> call() {
+				return client.getSpaces();
+			}
+		});
+	}
+
+	public Future<List<CloudOrganization>> getOrganizations() {
+		return executor.submit(new Callable<List<CloudOrganization>>() {
+			public List<CloudOrganization> call() {
+				return client.getOrganizations();
+			}
+		});
+	}
+
+	public Future<List<CloudDomain>> getDomains() {
+		return executor.submit(new Callable<List<CloudDomain>>() {
+			public List<CloudDomain> call() {
+				return client.getDomains();
+			}
+		});
+	}
+
+	public Future<List<CloudRoute>> getRoutes(final String domainName) {
+		return executor.submit(new Callable<List<CloudRoute>>() {
+			public List<CloudRoute> call() {
+				return client.getRoutes(domainName);
+			}
+		});
+	}
+
+	public <T> Future<T> submit(Callable<T> operation) {
+		return executor.submit(operation);
+	}
+
+	/**
+	 * Stop accepting operations, letting the ones already submitted complete. An executor passed by the caller is
+	 * left running, it is up to the caller to shut it down.
+	 */
+	public void shutdown() {
+		if (ownsExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	private static ExecutorService createExecutor(int threads) {
+		Assert.isTrue(threads > 0, "Number of threads must be greater than 0");
+		final String threadNamePrefix = "cloudfoundry-async-" + clientCount.incrementAndGet() + "-";
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger threadCount = new AtomicInteger();
+
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+}
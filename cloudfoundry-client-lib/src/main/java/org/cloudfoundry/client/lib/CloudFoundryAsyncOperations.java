@@ -0,0 +1,180 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.cloudfoundry.client.lib.domain.ApplicationLog;
+import org.cloudfoundry.client.lib.domain.ApplicationStats;
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudDomain;
+import org.cloudfoundry.client.lib.domain.CloudOrganization;
+import org.cloudfoundry.client.lib.domain.CloudRoute;
+import org.cloudfoundry.client.lib.domain.CloudService;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.domain.InstancesInfo;
+
+/**
+ * Asynchronous variant of the most frequently used {@link CloudFoundryOperations}. Each call returns immediately with
+ * a {@link Future}, and is executed on a bounded pool of threads shared by all the calls of the client. Failures are
+ * reported by {@link Future#get()} as an {@link java.util.concurrent.ExecutionException} wrapping the exception the
+ * blocking operation would have thrown.
+ */
+public interface CloudFoundryAsyncOperations {
+
+	/**
+	 * Get all applications of the current space.
+	 */
+	Future<List<CloudApplication>> getApplications();
+
+	/**
+	 * Get an application by name.
+	 */
+	Future<CloudApplication> getApplication(String appName);
+
+	/**
+	 * Get the statistics of the instances of an application.
+	 */
+	Future<ApplicationStats> getApplicationStats(String appName);
+
+	/**
+	 * Get the state of the instances of an application.
+	 */
+	Future<InstancesInfo> getApplicationInstances(String appName);
+
+	/**
+	 * Upload an application archive, failing with an {@link java.io.IOException} if it can't be read.
+	 */
+	Future<Void> uploadApplication(String appName, File file);
+
+	/**
+	 * Start an application.
+	 */
+	Future<StartingInfo> startApplication(String appName);
+
+	/**
+	 * Stop an application.
+	 */
+	Future<Void> stopApplication(String appName);
+
+	/**
+	 * Restart an application.
+	 */
+	Future<StartingInfo> restartApplication(String appName);
+
+	/**
+	 * Delete an application.
+	 */
+	Future<Void> deleteApplication(String appName);
+
+	/**
+	 * Update the number of instances of an application.
+	 */
+	Future<Void> updateApplicationInstances(String appName, int instances);
+
+	/**
+	 * Update the memory of an application, in MB.
+	 */
+	Future<Void> updateApplicationMemory(String appName, int memory);
+
+	/**
+	 * Update the disk quota of an application, in MB.
+	 */
+	Future<Void> updateApplicationDiskQuota(String appName, int disk);
+
+	/**
+	 * Update the URIs of an application.
+	 */
+	Future<Void> updateApplicationUris(String appName, List<String> uris);
+
+	/**
+	 * Update the services bound to an application.
+	 */
+	Future<Void> updateApplicationServices(String appName, List<String> services);
+
+	/**
+	 * Update the environment of an application.
+	 */
+	Future<Void> updateApplicationEnv(String appName, Map<String, String> env);
+
+	/**
+	 * Get the recent log entries of an application.
+	 */
+	Future<List<ApplicationLog>> getRecentLogs(String appName);
+
+	/**
+	 * Get all services of the current space.
+	 */
+	Future<List<CloudService>> getServices();
+
+	/**
+	 * Get a service by name.
+	 */
+	Future<CloudService> getService(String service);
+
+	/**
+	 * Create a service.
+	 */
+	Future<Void> createService(CloudService service);
+
+	/**
+	 * Delete a service.
+	 */
+	Future<Void> deleteService(String service);
+
+	/**
+	 * Bind a service to an application.
+	 */
+	Future<Void> bindService(String appName, String serviceName);
+
+	/**
+	 * Unbind a service from an application.
+	 */
+	Future<Void> unbindService(String appName, String serviceName);
+
+	/**
+	 * Get all spaces visible to the user.
+	 */
+	Future<List<CloudSpace>> getSpaces();
+
+	/**
+	 * Get all organizations visible to the user.
+	 */
+	Future<List<CloudOrganization>> getOrganizations();
+
+	/**
+	 * Get all domains of the current organization.
+	 */
+	Future<List<CloudDomain>> getDomains();
+
+	/**
+	 * Get the routes of a domain.
+	 */
+	Future<List<CloudRoute>> getRoutes(String domainName);
+
+	/**
+	 * Run an arbitrary sequence of blocking operations on the pool of this client.
+	 *
+	 * @param operation the operations to run
+	 * @return the future result of the operation
+	 */
+	<T> Future<T> submit(Callable<T> operation);
+}
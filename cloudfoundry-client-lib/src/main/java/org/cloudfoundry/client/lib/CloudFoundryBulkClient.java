@@ -0,0 +1,93 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cloudfoundry.client.lib;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.rest.CloudControllerClient;
+import org.springframework.util.Assert;
+
+/**
+ * Applies bulk operations through a {@link CloudControllerClient}, with a bounded number of requests in flight.
+ */
+public class CloudFoundryBulkClient implements CloudFoundryBulkOperations {
+
+	public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+	private final CloudControllerClient cc;
+
+	private final int maxConcurrency;
+
+	public CloudFoundryBulkClient(CloudControllerClient cc) {
+		this(cc, DEFAULT_MAX_CONCURRENCY);
+	}
+
+	/**
+	 * @param cc the client used to update the applications
+	 * @param maxConcurrency the maximum number of applications updated at the same time
+	 */
+	public CloudFoundryBulkClient(CloudControllerClient cc, int maxConcurrency) {
+		Assert.notNull(cc, "CloudControllerClient cannot be null");
+		Assert.isTrue(maxConcurrency > 0, "Concurrency must be greater than 0");
+		this.cc = cc;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public BulkOperationResult start(Collection<String> appNames) {
+		return updateAll(appNames, "state", CloudApplication.AppState.STARTED);
+	}
+
+	public BulkOperationResult stop(Collection<String> appNames) {
+		return updateAll(appNames, "state", CloudApplication.AppState.STOPPED);
+	}
+
+	public BulkOperationResult scale(Map<String, Integer> instances) {
+		return update(instances, "instances");
+	}
+
+	public BulkOperationResult updateMemory(Map<String, Integer> memory) {
+		return update(memory, "memory");
+	}
+
+	public BulkOperationResult updateEnv(Map<String, Map<String, String>> env) {
+		return update(env, "environment_json");
+	}
+
+	private BulkOperationResult updateAll(Collection<String> appNames, String attribute, Object value) {
+		Map<String, Map<String, Object>> appRequests = new LinkedHashMap<String, Map<String, Object>>();
+		for (String appName : appNames) {
+			appRequests.put(appName, createAppRequest(attribute, value));
+		}
+		return cc.updateApplications(appRequests, maxConcurrency);
+	}
+
+	private BulkOperationResult update(Map<String, ?> values, String attribute) {
+		Map<String, Map<String, Object>> appRequests = new LinkedHashMap<String, Map<String, Object>>();
+		for (Map.Entry<String, ?> value : values.entrySet()) {
+			appRequests.put(value.getKey(), createAppRequest(attribute, value.getValue()));
+		}
+		return cc.updateApplications(appRequests, maxConcurrency);
+	}
+
+	private Map<String, Object> createAppRequest(String attribute, Object value) {
+		Map<String, Object> appRequest = new LinkedHashMap<String, Object>();
+		appRequest.put(attribute, value);
+		return appRequest;
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cloudfoundry.client.lib;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Operations applied to a set of applications at once. The applications are resolved with a single listing of the
+ * current space and updated concurrently. A failure for one application doesn't prevent the others from being updated;
+ * it is reported in the returned {@link BulkOperationResult}.
+ */
+public interface CloudFoundryBulkOperations {
+
+	/**
+	 * Start applications, without waiting for them to be staged.
+	 *
+	 * @param appNames the names of the applications
+	 * @return the outcome for each application
+	 */
+	BulkOperationResult start(Collection<String> appNames);
+
+	/**
+	 * Stop applications.
+	 *
+	 * @param appNames the names of the applications
+	 * @return the outcome for each application
+	 */
+	BulkOperationResult stop(Collection<String> appNames);
+
+	/**
+	 * Update the number of instances of applications.
+	 *
+	 * @param instances the number of instances, keyed by application name
+	 * @return the outcome for each application
+	 */
+	BulkOperationResult scale(Map<String, Integer> instances);
+
+	/**
+	 * Update the memory of applications.
+	 *
+	 * @param memory the memory in MB, keyed by application name
+	 * @return the outcome for each application
+	 */
+	BulkOperationResult updateMemory(Map<String, Integer> memory);
+
+	/**
+	 * Update the environment of applications.
+	 *
+	 * @param env the environment, keyed by application name
+	 * @return the outcome for each application
+	 */
+	BulkOperationResult updateEnv(Map<String, Map<String, String>> env);
+}
@@ -40,11 +40,15 @@ import org.springframework.util.Assert;
 import org.springframework.web.client.ResponseErrorHandler;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 /**
  * A Java client to exercise the Cloud Foundry API.
@@ -57,9 +61,13 @@ import java.util.UUID;
  */
 public class CloudFoundryClient implements CloudFoundryOperations {
 
-	private CloudControllerClient cc;
+	private final CloudControllerClient cc;
 
-	private CloudInfo info;
+	private volatile CloudInfo info;
+
+	private CloudFoundryAsyncClient asyncClient;
+
+	private CloudFoundryBulkClient bulkClient;
 
 	/**
 	 * Construct client for anonymous user. Useful only to get to the '/info' endpoint.
@@ -125,9 +133,15 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 
 	public CloudFoundryClient(CloudCredentials credentials, URL cloudControllerUrl, CloudSpace sessionSpace,
 	                          HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
+		this(credentials, cloudControllerUrl, sessionSpace, httpProxyConfiguration, trustSelfSignedCerts, null);
+	}
+
+	public CloudFoundryClient(CloudCredentials credentials, URL cloudControllerUrl, CloudSpace sessionSpace,
+	                          HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts,
+	                          HttpConnectionConfiguration httpConnectionConfiguration) {
 		Assert.notNull(cloudControllerUrl, "URL for cloud controller cannot be null");
 		CloudControllerClientFactory cloudControllerClientFactory =
-				new CloudControllerClientFactory(httpProxyConfiguration, trustSelfSignedCerts);
+				new CloudControllerClientFactory(httpProxyConfiguration, trustSelfSignedCerts, httpConnectionConfiguration);
 		this.cc = cloudControllerClientFactory.newCloudController(cloudControllerUrl, credentials, sessionSpace);
 	}
 
@@ -151,9 +165,15 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 
 	public CloudFoundryClient(CloudCredentials credentials, URL cloudControllerUrl, String orgName, String spaceName,
 	                          HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
+		this(credentials, cloudControllerUrl, orgName, spaceName, httpProxyConfiguration, trustSelfSignedCerts, null);
+	}
+
+	public CloudFoundryClient(CloudCredentials credentials, URL cloudControllerUrl, String orgName, String spaceName,
+	                          HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts,
+	                          HttpConnectionConfiguration httpConnectionConfiguration) {
 		Assert.notNull(cloudControllerUrl, "URL for cloud controller cannot be null");
 		CloudControllerClientFactory cloudControllerClientFactory =
-				new CloudControllerClientFactory(httpProxyConfiguration, trustSelfSignedCerts);
+				new CloudControllerClientFactory(httpProxyConfiguration, trustSelfSignedCerts, httpConnectionConfiguration);
 		this.cc = cloudControllerClientFactory.newCloudController(cloudControllerUrl, credentials, orgName, spaceName);
 	}
 
@@ -164,6 +184,35 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		this.cc = cc;
 	}
 
+	/**
+	 * Get the asynchronous variant of this client, running operations on a pool of
+	 * {@link CloudFoundryAsyncClient#DEFAULT_THREADS} threads.
+	 */
+	public synchronized CloudFoundryAsyncOperations async() {
+		if (asyncClient == null) {
+			asyncClient = new CloudFoundryAsyncClient(this);
+		}
+		return asyncClient;
+	}
+
+	/**
+	 * Get the bulk operations of this client, updating up to {@link CloudFoundryBulkClient#DEFAULT_MAX_CONCURRENCY}
+	 * applications at the same time.
+	 */
+	public synchronized CloudFoundryBulkOperations bulk() {
+		if (bulkClient == null) {
+			bulkClient = new CloudFoundryBulkClient(cc);
+		}
+		return bulkClient;
+	}
+
+	/**
+	 * Get the bulk operations of this client, updating up to the given number of applications at the same time.
+	 */
+	public CloudFoundryBulkOperations bulk(int maxConcurrency) {
+		return new CloudFoundryBulkClient(cc, maxConcurrency);
+	}
+
 	public void setResponseErrorHandler(ResponseErrorHandler errorHandler) {
 		cc.setResponseErrorHandler(errorHandler);
 	}
@@ -183,6 +232,10 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getSpaces();
 	}
 
+	public Iterator<CloudSpace> iterateSpaces() {
+		return cc.iterateSpaces();
+	}
+
 	public List<CloudOrganization> getOrganizations() {
 		return cc.getOrganizations();
 	}
@@ -215,6 +268,18 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getApplications();
 	}
 
+	public List<CloudApplication> getApplications(boolean loadDetails) {
+		return cc.getApplications(loadDetails);
+	}
+
+	public Iterator<CloudApplication> iterateApplications() {
+		return cc.iterateApplications();
+	}
+
+	public void loadApplicationDetails(List<CloudApplication> apps) {
+		cc.loadApplicationDetails(apps);
+	}
+
 	public CloudApplication getApplication(String appName) {
 		return cc.getApplication(appName);
 	}
@@ -276,6 +341,11 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		cc.uploadApplication(appName, archive, callback);
 	}
 
+	public Future<Void> uploadApplicationAsync(String appName, ApplicationArchive archive,
+	                                           UploadStatusCallback callback) throws IOException {
+		return cc.uploadApplicationAsync(appName, archive, callback);
+	}
+
 	public StartingInfo startApplication(String appName) {
 		return cc.startApplication(appName);
 	}
@@ -362,6 +432,10 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getStagingLogs(info, offset);
 	}
 
+	public void streamStagingLogs(StartingInfo info, StagingLogListener listener) {
+		cc.streamStagingLogs(info, listener);
+	}
+
 	public String getFile(String appName, int instanceIndex, String filePath) {
 		return cc.getFile(appName, instanceIndex, filePath, 0, -1);
 	}
@@ -381,6 +455,45 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getFile(appName, instanceIndex, filePath, startPosition, endPosition - 1);
 	}
 
+	public void getFile(String appName, int instanceIndex, String filePath, OutputStream out) {
+		cc.getFile(appName, instanceIndex, filePath, 0, -1, out);
+	}
+
+	public void getFile(String appName, int instanceIndex, String filePath, int startPosition, int endPosition,
+						OutputStream out) {
+		Assert.isTrue(startPosition >= 0,
+				startPosition + " is not a valid value for start position, it should be 0 or greater.");
+		Assert.isTrue(endPosition > startPosition,
+				endPosition + " is not a valid value for end position, it should be greater than startPosition " +
+						"which is " + startPosition + ".");
+		cc.getFile(appName, instanceIndex, filePath, startPosition, endPosition - 1, out);
+	}
+
+	public void getFile(String appName, int instanceIndex, String filePath, File destination) throws IOException {
+		Assert.notNull(destination, "Destination file must not be null");
+		OutputStream out = new FileOutputStream(destination);
+		boolean complete = false;
+		try {
+			cc.getFile(appName, instanceIndex, filePath, 0, -1, out);
+			complete = true;
+		} finally {
+			out.close();
+			if (!complete) {
+				destination.delete();
+			}
+		}
+	}
+
+	public void getFile(String appName, int instanceIndex, String filePath, File destination, int segments)
+			throws IOException {
+		cc.getFile(appName, instanceIndex, filePath, destination, segments);
+	}
+
+	public StreamingLogToken followFile(String appName, int instanceIndex, String filePath, long startPosition,
+										FileContentListener listener) {
+		return cc.followFile(appName, instanceIndex, filePath, startPosition, listener);
+	}
+
 	public void openFile(String appName, int instanceIndex, String filePath, ClientHttpResponseCallback callback) {
 		cc.openFile(appName, instanceIndex, filePath, callback);
 	}
@@ -396,6 +509,10 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getServices();
 	}
 
+	public Iterator<CloudService> iterateServices() {
+		return cc.iterateServices();
+	}
+
 	public List<CloudServiceBroker> getServiceBrokers() {
 		return cc.getServiceBrokers();
 	}
@@ -480,6 +597,10 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getRoutes(domainName);
 	}
 
+	public Iterator<CloudRoute> iterateRoutes(String domainName) {
+		return cc.iterateRoutes(domainName);
+	}
+
 	public void addRoute(String host, String domainName) {
 		cc.addRoute(host, domainName);
 	}
@@ -496,4 +617,24 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		cc.unRegisterRestLogListener(callBack);
 	}
 
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		cc.setMaxConcurrentRequests(maxConcurrentRequests);
+	}
+
+	public void setJobPollingDelays(long initialDelay, long maxDelay) {
+		cc.setJobPollingDelays(initialDelay, maxDelay);
+	}
+
+	public void setResolutionCacheTimeout(long timeout) {
+		cc.setResolutionCacheTimeout(timeout);
+	}
+
+	public void clearCaches() {
+		cc.clearCaches();
+	}
+
+	public CompressionMetrics getCompressionMetrics() {
+		return cc.getCompressionMetrics();
+	}
+
 }
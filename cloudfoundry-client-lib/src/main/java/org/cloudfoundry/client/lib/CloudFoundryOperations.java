@@ -37,9 +37,12 @@ import org.springframework.web.client.ResponseErrorHandler;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * The interface defining operations making up the Cloud Foundry Java client's API.
@@ -80,6 +83,14 @@ public interface CloudFoundryOperations {
 	 */
 	List<CloudSpace> getSpaces();
 
+	/**
+	 * Iterate over the CloudSpaces for the current cloud, requesting each page of the listing only when the spaces of
+	 * the previous one have been consumed.
+	 *
+	 * @return iterator over CloudSpace objects containing the space info
+	 */
+	Iterator<CloudSpace> iterateSpaces();
+
 	/**
 	 * Get list of CloudOrganizations for the current cloud.
 	 *
@@ -135,6 +146,33 @@ public interface CloudFoundryOperations {
 	 */
 	List<CloudApplication> getApplications();
 
+	/**
+	 * Get all cloud applications, optionally deferring the retrieval of their running instances, URIs and services.
+	 * Deferred values are retrieved on first access and then remembered.
+	 *
+	 * @param loadDetails true to retrieve the running instances, URIs and services of all applications up front,
+	 *                    false to retrieve them only when accessed
+	 * @return list of cloud applications
+	 */
+	List<CloudApplication> getApplications(boolean loadDetails);
+
+	/**
+	 * Iterate over all cloud applications, requesting each page of the listing only when the applications of the
+	 * previous one have been consumed.
+	 *
+	 * @return iterator over cloud applications
+	 */
+	Iterator<CloudApplication> iterateApplications();
+
+	/**
+	 * Retrieve the deferred running instances, URIs and services of applications obtained with
+	 * {@link #getApplications(boolean)} in bulk, rather than one application at a time on first access.
+	 * Applications that are already fully loaded are left untouched.
+	 *
+	 * @param apps the applications to load
+	 */
+	void loadApplicationDetails(List<CloudApplication> apps);
+
 	/**
 	 * Get cloud application with the specified name.
 	 *
@@ -252,6 +290,19 @@ public interface CloudFoundryOperations {
 	 */
 	void uploadApplication(String appName, ApplicationArchive archive, UploadStatusCallback callback) throws IOException;
 
+	/**
+	 * Upload an application to cloud foundry without waiting for the uploaded bits to be processed. The returned
+	 * future completes when processing has finished, or when the callback unsubscribes from progress reports.
+	 *
+	 * @param appName  the application name
+	 * @param archive  the application archive
+	 * @param callback a callback interface used to provide progress information or <tt>null</tt>
+	 * @return the future completion of the processing of the upload
+	 * @throws java.io.IOException
+	 */
+	Future<Void> uploadApplicationAsync(String appName, ApplicationArchive archive, UploadStatusCallback callback)
+			throws IOException;
+
 	/**
 	 * Start application. May return starting info if the response obtained after the start request contains headers.
 	 * If the response does not contain headers, null is returned instead.
@@ -426,6 +477,16 @@ public interface CloudFoundryOperations {
 	 */
 	String getStagingLogs(StartingInfo info, int offset);
 
+	/**
+	 * Stream the staging log of an application as it is written, over one connection that is reopened from the last
+	 * line received if the server closes it. Lines are pushed to the listener as they arrive, and the call returns
+	 * when the staging log is no longer available.
+	 *
+	 * @param info starting information containing staging log file URL. Obtained after starting an application.
+	 * @param listener the listener receiving the lines of the log
+	 */
+	void streamStagingLogs(StartingInfo info, StagingLogListener listener);
+
 
 	/**
 	 * Get the list of stacks available for staging applications.
@@ -476,6 +537,72 @@ public interface CloudFoundryOperations {
 	 */
 	String getFile(String appName, int instanceIndex, String filePath, int startPosition, int endPosition);
 
+	/**
+	 * Stream a file from the deployed application to an output stream, without holding its content in memory.
+	 *
+	 * @param appName       name of the application
+	 * @param instanceIndex instance index
+	 * @param filePath      path to the file
+	 * @param out           the stream the contents of the file are written to, left open
+	 */
+	void getFile(String appName, int instanceIndex, String filePath, OutputStream out);
+
+	/**
+	 * Stream a range of content of a file from the deployed application to an output stream. The range begins at the
+	 * specified startPosition and extends to the byte at endPosition - 1.
+	 *
+	 * @param appName       name of the application
+	 * @param instanceIndex instance index
+	 * @param filePath      path to the file
+	 * @param startPosition the starting position of the file contents (inclusive)
+	 * @param endPosition   the ending position of the file contents (exclusive)
+	 * @param out           the stream the contents of the file are written to, left open
+	 */
+	void getFile(String appName, int instanceIndex, String filePath, int startPosition, int endPosition,
+				 OutputStream out);
+
+	/**
+	 * Download a file from the deployed application to a local file, replacing its content. The local file is
+	 * deleted when the download fails.
+	 *
+	 * @param appName       name of the application
+	 * @param instanceIndex instance index
+	 * @param filePath      path to the file
+	 * @param destination   the local file to write to
+	 * @throws IOException if the local file can't be written
+	 */
+	void getFile(String appName, int instanceIndex, String filePath, File destination) throws IOException;
+
+	/**
+	 * Download a large file from the deployed application to a local file, fetching byte ranges of it over several
+	 * connections at once. A segment that fails is retried on its own. When the server doesn't support ranges the
+	 * file is downloaded over a single connection. The local file is deleted when the download fails.
+	 *
+	 * @param appName       name of the application
+	 * @param instanceIndex instance index
+	 * @param filePath      path to the file
+	 * @param destination   the local file to write to
+	 * @param segments      the maximum number of ranges downloaded concurrently
+	 * @throws IOException if the local file can't be written
+	 */
+	void getFile(String appName, int instanceIndex, String filePath, File destination, int segments)
+			throws IOException;
+
+	/**
+	 * Follow a file of the deployed application, like {@code tail -f}. The file is read periodically from the last
+	 * offset reached, and only the bytes appended since then are passed to the listener. An idle file is read less
+	 * and less often, and a file that shrinks is reported as truncated and followed again from its start.
+	 *
+	 * @param appName       name of the application
+	 * @param instanceIndex instance index
+	 * @param filePath      path to the file
+	 * @param startPosition the position from which to start following the file
+	 * @param listener      listener object to be notified
+	 * @return token than can be used to stop following the file
+	 */
+	StreamingLogToken followFile(String appName, int instanceIndex, String filePath, long startPosition,
+								 FileContentListener listener);
+
 	/**
 	 * Get a the last bytes, with length as specified, of content of a file from the deployed application.
 	 *
@@ -494,6 +621,14 @@ public interface CloudFoundryOperations {
 	 */
 	List<CloudService> getServices();
 
+	/**
+	 * Iterate over the cloud services, requesting each page of the listing only when the services of the previous one
+	 * have been consumed.
+	 *
+	 * @return iterator over cloud services
+	 */
+	Iterator<CloudService> iterateServices();
+
 	/**
 	 * Get cloud service.
 	 *
@@ -636,6 +771,15 @@ public interface CloudFoundryOperations {
 	 */
 	List<CloudRoute> getRoutes(String domainName);
 
+	/**
+	 * Iterate over the routes for a domain, requesting each page of the listing only when the routes of the previous
+	 * one have been consumed.
+	 *
+	 * @param domainName the domain the routes belong to
+	 * @return iterator over routes
+	 */
+	Iterator<CloudRoute> iterateRoutes(String domainName);
+
 	/**
 	 * Register a new route to the a domain.
 	 *
@@ -665,4 +809,44 @@ public interface CloudFoundryOperations {
 	 * @param callBack the callback to be un-registered
 	 */
 	void unRegisterRestLogListener(RestLogCallback callBack);
+
+	/**
+	 * Set the maximum number of requests a single operation may have in flight at the same time, for instance when
+	 * fetching the pages of a listing. A value of 1 makes all requests sequential.
+	 *
+	 * @param maxConcurrentRequests the maximum number of concurrent requests per operation
+	 */
+	void setMaxConcurrentRequests(int maxConcurrentRequests);
+
+	/**
+	 * Set the delays between two checks of the status of an asynchronous job, such as the processing of uploaded
+	 * application bits. The first check is made after the initial delay, which then doubles after each check up to the
+	 * maximum delay.
+	 *
+	 * @param initialDelay the delay in milliseconds before the first check
+	 * @param maxDelay the maximum delay in milliseconds between two checks
+	 */
+	void setJobPollingDelays(long initialDelay, long maxDelay);
+
+	/**
+	 * Set how long the names of applications, services, domains and stacks resolved by this client are remembered.
+	 * Only their guids are kept, entities are always fetched again. Entries are also discarded when this client
+	 * creates, renames or deletes the corresponding entity. A timeout of 0 disables the resolution cache.
+	 *
+	 * @param timeout the time in milliseconds a resolved name is remembered
+	 */
+	void setResolutionCacheTimeout(long timeout);
+
+	/**
+	 * Discard the cloud info and the names of applications, services, domains and stacks remembered by this client,
+	 * forcing them to be fetched again on next use. Useful when those entities are changed by other clients.
+	 */
+	void clearCaches();
+
+	/**
+	 * Get the counters of compressed responses received by this client.
+	 *
+	 * @return the compression metrics, empty if the client's RestTemplate doesn't record them
+	 */
+	CompressionMetrics getCompressionMetrics();
 }
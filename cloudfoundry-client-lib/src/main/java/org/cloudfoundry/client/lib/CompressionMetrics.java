@@ -0,0 +1,78 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the compressed responses received by a client, updated as response bodies are read.
+ */
+public class CompressionMetrics {
+
+	private final AtomicLong compressedResponses = new AtomicLong();
+
+	private final AtomicLong compressedBytes = new AtomicLong();
+
+	private final AtomicLong decompressedBytes = new AtomicLong();
+
+	public void addCompressedResponse() {
+		compressedResponses.incrementAndGet();
+	}
+
+	public void addCompressedBytes(long count) {
+		compressedBytes.addAndGet(count);
+	}
+
+	public void addDecompressedBytes(long count) {
+		decompressedBytes.addAndGet(count);
+	}
+
+	/**
+	 * @return the number of responses received with a gzip or deflate content encoding
+	 */
+	public long getCompressedResponses() {
+		return compressedResponses.get();
+	}
+
+	/**
+	 * @return the number of bytes of compressed response bodies read from the network
+	 */
+	public long getCompressedBytes() {
+		return compressedBytes.get();
+	}
+
+	/**
+	 * @return the number of bytes the compressed response bodies expanded to
+	 */
+	public long getDecompressedBytes() {
+		return decompressedBytes.get();
+	}
+
+	/**
+	 * @return the ratio of decompressed to compressed bytes, or 0 if no compressed response has been read
+	 */
+	public double getCompressionRatio() {
+		long compressed = compressedBytes.get();
+		return compressed > 0 ? (double) decompressedBytes.get() / compressed : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "CompressionMetrics [responses=" + getCompressedResponses() + ", compressedBytes=" + getCompressedBytes() +
+				", decompressedBytes=" + getDecompressedBytes() + "]";
+	}
+}
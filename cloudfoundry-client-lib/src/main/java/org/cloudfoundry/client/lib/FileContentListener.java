@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+/**
+ * Receives the content appended to a file of an application instance while it is followed.
+ */
+public interface FileContentListener {
+
+	/**
+	 * Called with each block of content appended to the file.
+	 *
+	 * @param content the new bytes of the file
+	 * @param offset the position of the first of these bytes in the file
+	 */
+	void onContent(byte[] content, long offset);
+
+	/**
+	 * Called when the file has become shorter than the content already received, because it was truncated or
+	 * rotated. Following continues from the start of the file.
+	 */
+	void onTruncated();
+
+	/**
+	 * Called when the file can't be read, after which following stops.
+	 *
+	 * @param exception the cause of the failure
+	 */
+	void onError(Throwable exception);
+}
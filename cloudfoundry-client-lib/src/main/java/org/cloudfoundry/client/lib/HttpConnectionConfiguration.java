@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+/**
+ * Class that encapsulates the tuning of the pool of http connections used by a client.
+ */
+public class HttpConnectionConfiguration {
+
+	public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 20;
+
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+	public static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 30 * 1000;
+
+	public static final long DEFAULT_KEEP_ALIVE = 30 * 1000;
+
+	public static final int DEFAULT_CONNECT_TIMEOUT = 30 * 1000;
+
+	public static final int DEFAULT_READ_TIMEOUT = 60 * 1000;
+
+	private int maxTotalConnections;
+
+	private int maxConnectionsPerRoute;
+
+	private long idleConnectionTimeout;
+
+	private long keepAlive;
+
+	private int connectTimeout;
+
+	private int readTimeout;
+
+	public HttpConnectionConfiguration() {
+		this(DEFAULT_MAX_TOTAL_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+	}
+
+	public HttpConnectionConfiguration(int maxTotalConnections, int maxConnectionsPerRoute) {
+		this(maxTotalConnections, maxConnectionsPerRoute, DEFAULT_IDLE_CONNECTION_TIMEOUT, DEFAULT_KEEP_ALIVE);
+	}
+
+	/**
+	 * @param maxTotalConnections the maximum number of connections in the pool
+	 * @param maxConnectionsPerRoute the maximum number of connections to a single host
+	 * @param idleConnectionTimeout the time in milliseconds after which idle connections are closed, 0 to keep them
+	 * @param keepAlive the time in milliseconds a connection is kept alive when the server doesn't say otherwise, 0 to
+	 *                  keep it until the server closes it
+	 */
+	public HttpConnectionConfiguration(int maxTotalConnections, int maxConnectionsPerRoute,
+	                                   long idleConnectionTimeout, long keepAlive) {
+		this(maxTotalConnections, maxConnectionsPerRoute, idleConnectionTimeout, keepAlive, DEFAULT_CONNECT_TIMEOUT,
+				DEFAULT_READ_TIMEOUT);
+	}
+
+	/**
+	 * @param maxTotalConnections the maximum number of connections in the pool
+	 * @param maxConnectionsPerRoute the maximum number of connections to a single host
+	 * @param idleConnectionTimeout the time in milliseconds after which idle connections are closed, 0 to keep them
+	 * @param keepAlive the time in milliseconds a connection is kept alive when the server doesn't say otherwise, 0 to
+	 *                  keep it until the server closes it
+	 * @param connectTimeout the time in milliseconds to wait for a connection to be established, 0 for no timeout
+	 * @param readTimeout the time in milliseconds to wait for data from an established connection, 0 for no timeout
+	 */
+	public HttpConnectionConfiguration(int maxTotalConnections, int maxConnectionsPerRoute,
+	                                   long idleConnectionTimeout, long keepAlive, int connectTimeout, int readTimeout) {
+		if (maxTotalConnections < 1 || maxConnectionsPerRoute < 1) {
+			throw new IllegalArgumentException("Connection limits must be positive");
+		}
+		if (idleConnectionTimeout < 0 || keepAlive < 0 || connectTimeout < 0 || readTimeout < 0) {
+			throw new IllegalArgumentException("Connection timeouts can't be negative");
+		}
+		this.maxTotalConnections = maxTotalConnections;
+		this.maxConnectionsPerRoute = Math.min(maxConnectionsPerRoute, maxTotalConnections);
+		this.idleConnectionTimeout = idleConnectionTimeout;
+		this.keepAlive = keepAlive;
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+
+	public int getMaxTotalConnections() {
+		return maxTotalConnections;
+	}
+
+	public int getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+
+	public long getIdleConnectionTimeout() {
+		return idleConnectionTimeout;
+	}
+
+	public long getKeepAlive() {
+		return keepAlive;
+	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+/**
+ * Receives the lines of a staging log as they are written.
+ */
+public interface StagingLogListener {
+
+	/**
+	 * Called for each line of the staging log, without its line terminator.
+	 *
+	 * @param line the line
+	 */
+	void onLine(String line);
+
+	/**
+	 * Called when the staging log is no longer available, usually because staging has completed.
+	 */
+	void onComplete();
+
+	/**
+	 * Called when the staging log can't be read, after which no other method is called.
+	 *
+	 * @param exception the cause of the failure
+	 */
+	void onError(Throwable exception);
+}
@@ -16,6 +16,8 @@
 
 package org.cloudfoundry.client.lib.archive;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
@@ -30,12 +32,27 @@ public abstract class AbstractApplicationArchiveEntry implements ApplicationArch
 
     protected static final int UNDEFINED_SIZE = -1;
 
-    private static final int BUFFER_SIZE = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // entries are fingerprinted concurrently, each thread reuses its own buffer
+    private static final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BUFFER_SIZE];
+        }
+    };
 
     private long size = UNDEFINED_SIZE;
 
     private byte[] sha1Digest;
 
+    private volatile ContentBudget contentBudget;
+
+    // the content read while fingerprinting, kept for the upload within the budget it was reserved from
+    private byte[] content;
+
+    private ContentBudget contentReservation;
+
     /**
      * Sets the size that should be returned. If this method is not called the size will be deduced by reading the
      * stream.
@@ -76,20 +93,80 @@ public abstract class AbstractApplicationArchiveEntry implements ApplicationArch
         return sha1Digest;
     }
 
+    /**
+     * Sets the budget within which the content read to deduce the size and SHA1 digest is kept in memory, so that
+     * {@link #getRetainedInputStream()} doesn't read it again. Content that doesn't fit is not kept.
+     *
+     * @param contentBudget the content budget, or <tt>null</tt> not to keep the content
+     */
+    public void setContentBudget(ContentBudget contentBudget) {
+        this.contentBudget = contentBudget;
+    }
+
+    /**
+     * Returns the content kept when the entry was fingerprinted, handing it over to the caller, or a new
+     * {@link #getInputStream() input stream} if none was kept. The caller is responsible for closing the stream.
+     *
+     * @return the file contents
+     * @throws IOException
+     */
+    public InputStream getRetainedInputStream() throws IOException {
+        byte[] content = releaseContent();
+        if (content != null) {
+            return new ByteArrayInputStream(content);
+        }
+        return getInputStream();
+    }
+
+    /**
+     * Drops the content kept when the entry was fingerprinted, if any, giving its room back to the content budget.
+     *
+     * @return the content that was kept, or <tt>null</tt>
+     */
+    public synchronized byte[] releaseContent() {
+        byte[] content = this.content;
+        if (content != null) {
+            this.content = null;
+            contentReservation.release(content.length);
+            contentReservation = null;
+        }
+        return content;
+    }
+
+    private synchronized void retainContent(byte[] content) {
+        ContentBudget contentBudget = this.contentBudget;
+        if (this.content == null && contentBudget != null && contentBudget.reserve(content.length)) {
+            this.content = content;
+            this.contentReservation = contentBudget;
+        }
+    }
+
     private void deduceMissingData() {
         try {
             InputStream inputStream = getInputStream();
             try {
                 try {
                     MessageDigest digest = (this.sha1Digest == null ? MessageDigest.getInstance("SHA") : null);
-                    byte[] buffer = new byte[BUFFER_SIZE];
-                    int byteCount = 0;
+                    ContentBudget contentBudget = this.contentBudget;
+                    ByteArrayOutputStream retained = null;
+                    if (contentBudget != null && size <= contentBudget.getMaxEntrySize()) {
+                        retained = new ByteArrayOutputStream(size == UNDEFINED_SIZE ? 32 : (int) size);
+                    }
+                    byte[] buffer = buffers.get();
+                    long byteCount = 0;
                     int bytesRead = -1;
                     while ((bytesRead = inputStream.read(buffer)) != -1) {
                         byteCount += bytesRead;
                         if (digest != null) {
                             digest.update(buffer, 0, bytesRead);
                         }
+                        if (retained != null) {
+                            if (byteCount <= contentBudget.getMaxEntrySize()) {
+                                retained.write(buffer, 0, bytesRead);
+                            } else {
+                                retained = null;
+                            }
+                        }
                     }
                     if (this.size == UNDEFINED_SIZE) {
                         this.size = byteCount;
@@ -97,6 +174,9 @@ public abstract class AbstractApplicationArchiveEntry implements ApplicationArch
                     if (this.sha1Digest == null) {
                         this.sha1Digest = digest.digest();
                     }
+                    if (retained != null) {
+                        retainContent(retained.toByteArray());
+                    }
                 } catch (Exception e) {
                     throw new IllegalStateException(e);
                 }
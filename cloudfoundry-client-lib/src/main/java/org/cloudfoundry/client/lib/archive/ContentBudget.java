@@ -0,0 +1,107 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Memory budget for the content of archive entries that is kept after they were fingerprinted, so that the entries
+ * that have to be uploaded are not read a second time. Only entries up to a maximum size are kept, and the total
+ * size kept at any time is bounded. A budget can be shared by concurrent uploads.
+ *
+ * @see AbstractApplicationArchiveEntry#setContentBudget(ContentBudget)
+ */
+public class ContentBudget {
+
+    /**
+     * The default total size of the content kept in memory: 32 MB.
+     */
+    public static final long DEFAULT_MAX_TOTAL_SIZE = 32L * 1024 * 1024;
+
+    /**
+     * The default size of the largest entry whose content is kept in memory: 512 KB.
+     */
+    public static final int DEFAULT_MAX_ENTRY_SIZE = 512 * 1024;
+
+    private final long maxTotalSize;
+
+    private final int maxEntrySize;
+
+    private final AtomicLong reservedSize = new AtomicLong();
+
+    public ContentBudget() {
+        this(DEFAULT_MAX_TOTAL_SIZE, DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    /**
+     * @param maxTotalSize the maximum number of bytes kept at any time
+     * @param maxEntrySize the size in bytes of the largest entry whose content is kept
+     */
+    public ContentBudget(long maxTotalSize, int maxEntrySize) {
+        Assert.isTrue(maxTotalSize >= 0, "MaxTotalSize must not be negative");
+        Assert.isTrue(maxEntrySize >= 0, "MaxEntrySize must not be negative");
+        this.maxTotalSize = maxTotalSize;
+        this.maxEntrySize = (int) Math.min(maxEntrySize, maxTotalSize);
+    }
+
+    public int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Returns the number of bytes currently reserved.
+     *
+     * @return the reserved size
+     */
+    public long getReservedSize() {
+        return reservedSize.get();
+    }
+
+    /**
+     * Reserve room for the content of an entry.
+     *
+     * @param size the size of the content
+     * @return <tt>true</tt> if the content can be kept, in which case it must later be {@link #release(long)
+     * released}
+     */
+    public boolean reserve(long size) {
+        if (size > maxEntrySize) {
+            return false;
+        }
+        while (true) {
+            long reserved = reservedSize.get();
+            if (reserved + size > maxTotalSize) {
+                return false;
+            }
+            if (reservedSize.compareAndSet(reserved, reserved + size)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release room reserved with {@link #reserve(long)}.
+     *
+     * @param size the size of the content
+     */
+    public void release(long size) {
+        reservedSize.addAndGet(-size);
+    }
+}
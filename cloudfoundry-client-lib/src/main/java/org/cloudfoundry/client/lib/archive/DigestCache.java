@@ -0,0 +1,391 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.springframework.util.Assert;
+
+/**
+ * Persistent cache of the SHA1 digests of local files and zip entries, so that files that haven't changed since a
+ * previous push don't have to be read again. A digest is only reused for a file with the same canonical path, size,
+ * modification time and, where the file system provides one, file key (the inode on Unix), and for a zip entry with
+ * the same name, CRC32, compressed and uncompressed sizes. Like git, the digest of a file modified within the
+ * granularity of file modification times before it was read is not recorded, since the file could still change
+ * without its size or modification time changing.
+ *
+ * The cache keeps the most recently used entries up to a maximum. It is stored in a compact binary file, which is
+ * replaced atomically by {@link #save()} while holding a file lock, so that parallel builds sharing the same cache
+ * merge their entries instead of overwriting each other.
+ *
+ * @see DirectoryApplicationArchive#DirectoryApplicationArchive(File, DigestCache)
+ * @see ZipApplicationArchive#ZipApplicationArchive(ZipFile, DigestCache)
+ */
+public class DigestCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    private static final int MAGIC = 0x43464443;
+
+    private static final int VERSION = 1;
+
+    private static final int DIGEST_LENGTH = 20;
+
+    private static final long MODIFICATION_TIME_GRANULARITY = 2000;
+
+    private final File file;
+
+    private final int maxEntries;
+
+    private Map<String, CachedDigest> entries;
+
+    private final Map<String, CachedDigest> written = new LinkedHashMap<String, CachedDigest>();
+
+    public DigestCache(File file) {
+        this(file, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param file the file the cache is stored in
+     * @param maxEntries the maximum number of digests kept, the least recently used are discarded first
+     */
+    public DigestCache(File file, int maxEntries) {
+        Assert.notNull(file, "File must not be null");
+        Assert.isTrue(maxEntries > 0, "Max entries must be greater than 0");
+        this.file = file;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the default location of the cache, <tt>~/.cf/digests</tt>.
+     *
+     * @return the default cache file
+     */
+    public static File getDefaultFile() {
+        return new File(new File(System.getProperty("user.home"), ".cf"), "digests");
+    }
+
+    /**
+     * Returns the digest recorded for a file, if the file hasn't changed since.
+     *
+     * @param state the current state of the file
+     * @return the digest, or <tt>null</tt> if none is known for this state of the file
+     */
+    public synchronized byte[] getSha1Digest(FileState state) {
+        return get(state.path, state.size, state.lastModified, state.fileKey);
+    }
+
+    /**
+     * Returns the digest recorded for a zip entry with the same name, CRC32 and sizes.
+     *
+     * @param state the state of the zip entry
+     * @return the digest, or <tt>null</tt> if none is known for this content of the entry
+     */
+    public synchronized byte[] getSha1Digest(ZipEntryState state) {
+        return get(state.key, state.size, 0L, "");
+    }
+
+    /**
+     * Record the digest of a file, unless the file was modified too recently for a later change to be detected.
+     *
+     * @param state the state of the file the digest was computed from
+     * @param digest the SHA1 digest of the file
+     */
+    public synchronized void putSha1Digest(FileState state, byte[] digest) {
+        if (state.lastModified > state.readTime - MODIFICATION_TIME_GRANULARITY) {
+            return;
+        }
+        put(state.path, state.size, state.lastModified, state.fileKey, digest);
+    }
+
+    /**
+     * Record the digest of a zip entry.
+     *
+     * @param state the state of the zip entry the digest was computed from
+     * @param digest the SHA1 digest of the content of the entry
+     */
+    public synchronized void putSha1Digest(ZipEntryState state, byte[] digest) {
+        // zip entries have no modification time or file key, their key identifies the content
+        put(state.key, state.size, 0L, "", digest);
+    }
+
+    private byte[] get(String key, long size, long lastModified, String fileKey) {
+        CachedDigest entry = getEntries().get(key);
+        if (entry == null || !entry.matches(size, lastModified, fileKey)) {
+            return null;
+        }
+        return entry.digest.clone();
+    }
+
+    private void put(String key, long size, long lastModified, String fileKey, byte[] digest) {
+        Assert.isTrue(digest != null && digest.length == DIGEST_LENGTH, "Digest must be a SHA1 digest");
+        CachedDigest entry = new CachedDigest(size, lastModified, fileKey, digest.clone());
+        getEntries().put(key, entry);
+        written.remove(key);
+        written.put(key, entry);
+    }
+
+    /**
+     * Write the digests recorded since the cache was loaded, merging them with the ones saved in the meantime by
+     * other users of the same file.
+     *
+     * @throws IOException if the cache file can't be written
+     */
+    public synchronized void save() throws IOException {
+        if (written.isEmpty()) {
+            return;
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        // file locks are held by the whole JVM, so other caches of this JVM are kept out by the class monitor
+        synchronized (DigestCache.class) {
+            RandomAccessFile lockFile = new RandomAccessFile(new File(directory, file.getName() + ".lock"), "rw");
+            try {
+                FileLock lock = lockFile.getChannel().lock();
+                try {
+                    Map<String, CachedDigest> merged = read();
+                    // only the digests recorded here, older entries loaded from the file may have been replaced
+                    for (Map.Entry<String, CachedDigest> entry : written.entrySet()) {
+                        merged.remove(entry.getKey());
+                        merged.put(entry.getKey(), entry.getValue());
+                    }
+                    write(merged);
+                    entries = merged;
+                    written.clear();
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                lockFile.close();
+            }
+        }
+    }
+
+    private Map<String, CachedDigest> getEntries() {
+        if (entries == null) {
+            try {
+                entries = read();
+            } catch (IOException e) {
+                entries = createEntryMap();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Read the entries of the cache file. A missing or corrupt file reads as an empty cache, and a truncated one as
+     * the entries before the truncation.
+     *
+     * @throws IOException if the file can't be read
+     */
+    private Map<String, CachedDigest> read() throws IOException {
+        Map<String, CachedDigest> result = createEntryMap();
+        DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        } catch (FileNotFoundException e) {
+            return result;
+        }
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return result;
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                return result;
+            }
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                String fileKey = in.readUTF();
+                byte[] digest = new byte[DIGEST_LENGTH];
+                in.readFully(digest);
+                result.put(path, new CachedDigest(size, lastModified, fileKey, digest));
+            }
+        } catch (EOFException e) {
+            // truncated file, keep what could be read
+        } catch (UTFDataFormatException e) {
+            // corrupt file, none of it can be trusted and saving replaces it
+            return createEntryMap();
+        } finally {
+            in.close();
+        }
+        return result;
+    }
+
+    private void write(Map<String, CachedDigest> entries) throws IOException {
+        File tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            FileOutputStream fileOut = new FileOutputStream(tempFile);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                // least recently used first, so that reading the file back restores the order
+                for (Map.Entry<String, CachedDigest> entry : entries.entrySet()) {
+                    CachedDigest value = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(value.size);
+                    out.writeLong(value.lastModified);
+                    out.writeUTF(value.fileKey);
+                    out.write(value.digest);
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    private Map<String, CachedDigest> createEntryMap() {
+        return new LinkedHashMap<String, CachedDigest>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDigest> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The identity of a file at a point in time, as far as the cache is concerned.
+     */
+    public static final class FileState {
+
+        private final String path;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String fileKey;
+
+        private final long readTime;
+
+        private FileState(String path, long size, long lastModified, String fileKey, long readTime) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.readTime = readTime;
+        }
+
+        /**
+         * Read the current state of a file.
+         *
+         * @param file the file
+         * @return the state of the file
+         * @throws IOException if the attributes of the file can't be read
+         */
+        public static FileState of(File file) throws IOException {
+            long readTime = System.currentTimeMillis();
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            Object fileKey = attributes.fileKey();
+            return new FileState(file.getCanonicalPath(), attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    fileKey == null ? "" : fileKey.toString(), readTime);
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * The identity of the content of a zip entry, as far as the cache is concerned. Entries of different archives
+     * with the same name and content share their digest, and a changed entry never matches since its CRC and sizes
+     * are part of the key.
+     */
+    public static final class ZipEntryState {
+
+        private final String key;
+
+        private final long size;
+
+        private ZipEntryState(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+
+        /**
+         * Get the state of a zip entry from the metadata of the zip file, without inflating it.
+         *
+         * @param entry the zip entry, as read from the central directory of a {@link ZipFile}
+         * @return the state of the entry, or <tt>null</tt> if its CRC or sizes are unknown
+         */
+        public static ZipEntryState of(ZipEntry entry) {
+            if (entry.getCrc() == -1 || entry.getSize() == -1 || entry.getCompressedSize() == -1) {
+                return null;
+            }
+            return new ZipEntryState("zip:" + entry.getCrc() + ":" + entry.getCompressedSize() + ":" +
+                    entry.getSize() + ":" + entry.getName(), entry.getSize());
+        }
+    }
+
+    private static class CachedDigest {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String fileKey;
+
+        private final byte[] digest;
+
+        CachedDigest(long size, long lastModified, String fileKey, byte[] digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.digest = digest;
+        }
+
+        boolean matches(long size, long lastModified, String fileKey) {
+            return this.size == size && this.lastModified == lastModified && this.fileKey.equals(fileKey);
+        }
+    }
+}
@@ -39,10 +39,24 @@ public class DirectoryApplicationArchive implements ApplicationArchive {
 
     private List<Entry> entries;
 
+    private DigestCache digestCache;
+
     public DirectoryApplicationArchive(File directory) {
+        this(directory, null);
+    }
+
+    /**
+     * Create an archive whose entries take their digest from a cache when their file hasn't changed since it was
+     * recorded, and record the digests they compute. The cache is not saved by the archive.
+     *
+     * @param directory the directory of the application
+     * @param digestCache the digest cache, or <tt>null</tt> to always read the files
+     */
+    public DirectoryApplicationArchive(File directory, DigestCache digestCache) {
         Assert.notNull(directory, "Directory must not be null");
         Assert.isTrue(directory.isDirectory(), "File must reference a directory");
         this.directory = directory;
+        this.digestCache = digestCache;
         List<Entry> entries = new ArrayList<Entry>();
         collectEntries(entries, directory);
         this.entries = Collections.unmodifiableList(entries);
@@ -69,6 +83,7 @@ public class DirectoryApplicationArchive implements ApplicationArchive {
 
         private File file;
         private String name;
+        private boolean digestCacheUsed;
 
         public EntryAdapter(File file) {
             this.file = file;
@@ -92,5 +107,36 @@ public class DirectoryApplicationArchive implements ApplicationArchive {
             }
             return new FileInputStream(file);
         }
+
+        @Override
+        public long getSize() {
+            useDigestCache();
+            return super.getSize();
+        }
+
+        @Override
+        public byte[] getSha1Digest() {
+            useDigestCache();
+            return super.getSha1Digest();
+        }
+
+        private void useDigestCache() {
+            if (digestCache == null || digestCacheUsed || isDirectory()) {
+                return;
+            }
+            digestCacheUsed = true;
+            try {
+                DigestCache.FileState state = DigestCache.FileState.of(file);
+                byte[] digest = digestCache.getSha1Digest(state);
+                if (digest != null) {
+                    setSize(state.getSize());
+                    setSha1Digest(digest);
+                } else {
+                    digestCache.putSha1Digest(state, super.getSha1Digest());
+                }
+            } catch (IOException e) {
+                // the digest will be computed from the content
+            }
+        }
     }
 }
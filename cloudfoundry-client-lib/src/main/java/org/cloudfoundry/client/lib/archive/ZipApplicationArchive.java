@@ -41,13 +41,27 @@ public class ZipApplicationArchive implements ApplicationArchive {
 
     private String fileName;
 
+    private DigestCache digestCache;
+
     /**
      * Create a new {@link ZipApplicationArchive} instance for the given <tt>zipFile</tt>.
      * @param zipFile The underling zip file
      */
     public ZipApplicationArchive(ZipFile zipFile) {
+        this(zipFile, null);
+    }
+
+    /**
+     * Create a new {@link ZipApplicationArchive} instance for the given <tt>zipFile</tt>, whose entries take their
+     * digest from a cache when an entry with the same name, CRC and sizes was seen before, without inflating it. The
+     * cache is not saved by the archive.
+     * @param zipFile The underling zip file
+     * @param digestCache the digest cache, or <tt>null</tt> to always inflate the entries
+     */
+    public ZipApplicationArchive(ZipFile zipFile, DigestCache digestCache) {
         Assert.notNull(zipFile, "ZipFile must not be null");
         this.zipFile = zipFile;
+        this.digestCache = digestCache;
         this.entries = adaptZipEntries(zipFile);
         this.fileName = new File(zipFile.getName()).getName();
     }
@@ -73,6 +87,8 @@ public class ZipApplicationArchive implements ApplicationArchive {
 
         private ZipEntry entry;
 
+        private boolean digestCacheUsed;
+
         public EntryAdapter(ZipEntry entry) {
             this.entry = entry;
         }
@@ -89,6 +105,23 @@ public class ZipApplicationArchive implements ApplicationArchive {
             return entry.getSize();
         }
 
+        @Override
+        public byte[] getSha1Digest() {
+            if (digestCache != null && !digestCacheUsed && !isDirectory()) {
+                digestCacheUsed = true;
+                DigestCache.ZipEntryState state = DigestCache.ZipEntryState.of(entry);
+                if (state != null) {
+                    byte[] digest = digestCache.getSha1Digest(state);
+                    if (digest != null) {
+                        setSha1Digest(digest);
+                    } else {
+                        digestCache.putSha1Digest(state, super.getSha1Digest());
+                    }
+                }
+            }
+            return super.getSha1Digest();
+        }
+
         public InputStream getInputStream() throws IOException {
             if(isDirectory()) {
                 return null;
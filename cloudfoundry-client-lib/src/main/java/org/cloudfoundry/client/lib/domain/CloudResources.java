@@ -24,8 +24,10 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
+import org.cloudfoundry.client.lib.util.BoundedTaskExecutor;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonProcessingException;
@@ -49,6 +51,10 @@ public class CloudResources {
 
     private static final String HEX_CHARS = "0123456789ABCDEF";
 
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private static final BoundedTaskExecutor fingerprintExecutor = new BoundedTaskExecutor("cloudfoundry-fingerprint");
+
     private List<CloudResource> resources;
 
     /**
@@ -75,22 +81,53 @@ public class CloudResources {
     }
 
     /**
-     * Create a new {@link CloudResources} instance for the specified {@link ApplicationArchive}.
+     * Create a new {@link CloudResources} instance for the specified {@link ApplicationArchive}, computing the
+     * digests of its entries on as many threads as there are processors.
      *
      * @param archive the application archive
      */
     public CloudResources(ApplicationArchive archive) throws IOException {
+        this(archive, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new {@link CloudResources} instance for the specified {@link ApplicationArchive}. The entries are
+     * fingerprinted in batches on up to {@code parallelism} threads, and the resources keep the order of the entries.
+     *
+     * @param archive the application archive
+     * @param parallelism the maximum number of entries fingerprinted at the same time
+     */
+    public CloudResources(ApplicationArchive archive, int parallelism) throws IOException {
         Assert.notNull(archive, "Archive must not be null");
-        this.resources = new ArrayList<CloudResource>();
+        Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+        List<ApplicationArchive.Entry> files = new ArrayList<ApplicationArchive.Entry>();
         for (ApplicationArchive.Entry entry : archive.getEntries()) {
             if (!entry.isDirectory()) {
-                String name = entry.getName();
-                long size = entry.getSize();
-                String sha1 = bytesToHex(entry.getSha1Digest());
-                CloudResource resource = new CloudResource(name, size, sha1);
-                resources.add(resource);
+                files.add(entry);
             }
         }
+        int batchSize = Math.max((files.size() + parallelism * BATCHES_PER_THREAD - 1) /
+                (parallelism * BATCHES_PER_THREAD), 1);
+        List<Callable<List<CloudResource>>> batches = new ArrayList<Callable<List<CloudResource>>>();
+        for (int start = 0; start < files.size(); start += batchSize) {
+            final List<ApplicationArchive.Entry> batch = files.subList(start, Math.min(start + batchSize, files.size()));
+            batches.add(new Callable<List<CloudResource>>() {
+                public List<CloudResource> call() {
+                    List<CloudResource> batchResources = new ArrayList<CloudResource>(batch.size());
+                    for (ApplicationArchive.Entry entry : batch) {
+                        String name = entry.getName();
+                        long size = entry.getSize();
+                        String sha1 = bytesToHex(entry.getSha1Digest());
+                        batchResources.add(new CloudResource(name, size, sha1));
+                    }
+                    return batchResources;
+                }
+            });
+        }
+        this.resources = new ArrayList<CloudResource>(files.size());
+        for (List<CloudResource> batchResources : fingerprintExecutor.invokeAll(batches, parallelism)) {
+            this.resources.addAll(batchResources);
+        }
     }
 
     /**
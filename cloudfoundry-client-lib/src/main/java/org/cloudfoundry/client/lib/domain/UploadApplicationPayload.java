@@ -21,13 +21,16 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Set;
 
+import org.cloudfoundry.client.lib.archive.AbstractApplicationArchiveEntry;
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
 import org.cloudfoundry.client.lib.io.DynamicZipInputStream;
 import org.cloudfoundry.client.lib.io.DynamicZipInputStream.Entry;
+import org.cloudfoundry.client.lib.io.PipedZipInputStream;
 
 /**
  * A payload used to upload application data. The payload data is built from a source {@link ApplicationArchive},
- * excluding any entries that are already known to the remote server.
+ * excluding any entries that are already known to the remote server. Entries whose content was kept when they were
+ * fingerprinted are written from memory, the content of the excluded entries is released.
  *
  * @author Phillip Webb
  */
@@ -39,6 +42,10 @@ public class UploadApplicationPayload {
 
     private int totalUncompressedSize;
 
+    private int queueDepth;
+
+    private int bufferSize;
+
     /**
      * Create a new {@link UploadApplicationPayload}.
      *
@@ -55,6 +62,8 @@ public class UploadApplicationPayload {
             if (entry.isDirectory() || !matches.contains(entry.getName())) {
                 entriesToUpload.add(new DynamicZipInputStreamEntryAdapter(entry));
                 totalUncompressedSize += entry.getSize();
+            } else if (entry instanceof AbstractApplicationArchiveEntry) {
+                ((AbstractApplicationArchiveEntry) entry).releaseContent();
             }
         }
     }
@@ -83,11 +92,27 @@ public class UploadApplicationPayload {
 		return entriesToUpload.size();
     }
 
+    /**
+     * Produce the payload data on a background thread while it is read, so that compression overlaps with the
+     * transfer. By default the data is produced on the reading thread.
+     * @param queueDepth the number of produced buffers that can wait to be read, or 0 to produce the data on the
+     * reading thread
+     * @param bufferSize the size in bytes of the buffers
+     * @see PipedZipInputStream
+     */
+    public void setPipelining(int queueDepth, int bufferSize) {
+        this.queueDepth = queueDepth;
+        this.bufferSize = bufferSize;
+    }
+
     /**
      * Returns the payload data as an input stream.
      * @return the payload data
      */
     public InputStream getInputStream() {
+        if (queueDepth > 0) {
+            return new PipedZipInputStream(entriesToUpload, queueDepth, bufferSize);
+        }
         return new DynamicZipInputStream(entriesToUpload);
     }
 
@@ -107,6 +132,9 @@ public class UploadApplicationPayload {
         }
 
         public InputStream getInputStream() throws IOException {
+            if (entry instanceof AbstractApplicationArchiveEntry) {
+                return ((AbstractApplicationArchiveEntry) entry).getRetainedInputStream();
+            }
             return entry.getInputStream();
         }
     }
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cloudfoundry.client.lib.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.cloudfoundry.client.lib.util.BoundedTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * InputStream that creates ZIP contents on a background thread while the stream is read, so that compressing the
+ * entries and sending the stream overlap. The producer fills a bounded ring of pooled buffers which the reader drains;
+ * at most {@code queueDepth + 2} buffers are allocated. The contents are the same as a {@link DynamicZipInputStream}
+ * for the same entries.
+ */
+public class PipedZipInputStream extends InputStream {
+
+    /**
+     * The default number of filled buffers waiting to be read.
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 4;
+
+    /**
+     * The default size of the buffers: 64 KB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final BoundedTaskExecutor zipExecutor = new BoundedTaskExecutor("cloudfoundry-zip");
+
+    private static final Chunk END = new Chunk(null, -1, null);
+
+    private final BlockingQueue<Chunk> filled;
+
+    private final BlockingQueue<byte[]> free;
+
+    private final Future<Void> producer;
+
+    private Chunk current;
+
+    private int position;
+
+    private boolean finished;
+
+    private boolean closed;
+
+    private byte[] singleByte = new byte[1];
+
+    /**
+     * Create a new {@link PipedZipInputStream} instance with the default queue depth and buffer size.
+     *
+     * @param entries the zip entries that should be written to the stream
+     */
+    public PipedZipInputStream(Iterable<DynamicZipInputStream.Entry> entries) {
+        this(entries, DEFAULT_QUEUE_DEPTH, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new {@link PipedZipInputStream} instance and start producing its contents.
+     *
+     * @param entries the zip entries that should be written to the stream
+     * @param queueDepth the number of filled buffers that can wait to be read
+     * @param bufferSize the size in bytes of the buffers
+     */
+    public PipedZipInputStream(Iterable<DynamicZipInputStream.Entry> entries, int queueDepth, int bufferSize) {
+        Assert.notNull(entries, "Entries must not be null");
+        Assert.isTrue(queueDepth > 0, "QueueDepth must be greater than 0");
+        Assert.isTrue(bufferSize > 0, "BufferSize must be greater than 0");
+        // besides the queued buffers, one is being filled and one is being read
+        this.filled = new ArrayBlockingQueue<Chunk>(queueDepth);
+        this.free = new ArrayBlockingQueue<byte[]>(queueDepth + 2);
+        for (int i = 0; i < queueDepth + 2; i++) {
+            free.add(new byte[bufferSize]);
+        }
+        this.producer = zipExecutor.submit(new Producer(new DynamicZipInputStream(entries)));
+    }
+
+    @Override
+    public int read() throws IOException {
+        int count = read(singleByte, 0, 1);
+        return (count == 1 ? singleByte[0] & 0xFF : -1);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (b == null) {
+            throw new NullPointerException();
+        }
+        if (off < 0 || len < 0 || len > (b.length - off)) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current.buffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (current == null ? 0 : current.length - position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            producer.cancel(true);
+        }
+    }
+
+    /**
+     * Make sure the current chunk has data left, recycling its buffer and waiting for the next one otherwise.
+     *
+     * @return <tt>false</tt> at the end of the stream
+     */
+    private boolean nextChunk() throws IOException {
+        while (!finished && (current == null || position == current.length)) {
+            if (current != null) {
+                free.add(current.buffer);
+                current = null;
+            }
+            Chunk chunk;
+            try {
+                chunk = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for zip data");
+            }
+            if (chunk.failure != null) {
+                finished = true;
+                if (chunk.failure instanceof Error) {
+                    throw (Error) chunk.failure;
+                }
+                throw new IOException("Unable to create zip data: " + chunk.failure.getMessage(), chunk.failure);
+            }
+            if (chunk == END) {
+                finished = true;
+            } else {
+                current = chunk;
+                position = 0;
+            }
+        }
+        return !finished;
+    }
+
+    /**
+     * Writes the zip contents into free buffers and queues them for the reader, then queues the end of the stream or
+     * the failure.
+     */
+    private class Producer implements Callable<Void> {
+
+        private final DynamicZipInputStream zipStream;
+
+        Producer(DynamicZipInputStream zipStream) {
+            this.zipStream = zipStream;
+        }
+
+        public Void call() throws InterruptedException {
+            Chunk last = END;
+            try {
+                boolean more = true;
+                while (more) {
+                    byte[] buffer = free.take();
+                    int length = 0;
+                    while (length < buffer.length) {
+                        int count = zipStream.read(buffer, length, buffer.length - length);
+                        if (count == -1) {
+                            more = false;
+                            break;
+                        }
+                        length += count;
+                    }
+                    if (length > 0) {
+                        filled.put(new Chunk(buffer, length, null));
+                    } else {
+                        free.add(buffer);
+                    }
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Throwable e) {
+                // the reader waits for a terminal chunk whatever happens here
+                last = new Chunk(null, -1, e);
+            } finally {
+                try {
+                    zipStream.close();
+                } catch (IOException e) {
+                    // the contents were read, or the failure is already reported
+                }
+            }
+            filled.put(last);
+            return null;
+        }
+    }
+
+    private static class Chunk {
+
+        private final byte[] buffer;
+
+        private final int length;
+
+        private final Throwable failure;
+
+        Chunk(byte[] buffer, int length, Throwable failure) {
+            this.buffer = buffer;
+            this.length = length;
+            this.failure = failure;
+        }
+    }
+}
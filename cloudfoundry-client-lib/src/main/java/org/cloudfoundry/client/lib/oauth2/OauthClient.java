@@ -16,10 +16,19 @@
 
 package org.cloudfoundry.client.lib.oauth2;
 
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.cloudfoundry.client.lib.CloudCredentials;
 import org.cloudfoundry.client.lib.CloudFoundryException;
@@ -42,6 +51,10 @@ import org.springframework.web.client.RestTemplate;
 /**
  * Client that can handle authentication against a UAA instance
  *
+ * The token is safe to share between threads. Reading it is lock-free; it is refreshed in the background some time
+ * before it expires, and a caller that finds it about to expire refreshes it while the others needing it wait for
+ * that single refresh.
+ *
  * @author Dave Syer
  * @author Thomas Risberg
  */
@@ -49,12 +62,31 @@ public class OauthClient {
 
 	private static final String AUTHORIZATION_HEADER_KEY = "Authorization";
 
+	private static final int REFRESH_MARGIN_SECONDS = 50;
+
+	private static final int BACKGROUND_REFRESH_MARGIN_SECONDS = 120;
+
+	private static final ScheduledExecutorService tokenRefresher =
+			Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "cloudfoundry-client-token-refresher");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	private final Log logger = LogFactory.getLog(getClass().getName());
+
 	private URL authorizationUrl;
 
 	private RestTemplate restTemplate;
 
-	private OAuth2AccessToken token;
-	private CloudCredentials credentials;
+	private final Object tokenLock = new Object();
+
+	private volatile OAuth2AccessToken token;
+	private volatile CloudCredentials credentials;
+
+	private ScheduledFuture<?> scheduledRefresh;
 
 	public OauthClient(URL authorizationUrl, RestTemplate restTemplate) {
 		this.authorizationUrl = authorizationUrl;
@@ -63,42 +95,77 @@ public class OauthClient {
 
 	public void init(CloudCredentials credentials) {
 		if (credentials != null) {
-			this.credentials = credentials;
-
-			if (credentials.getToken() != null) {
-				this.token = credentials.getToken();
-			} else {
-				this.token = createToken(credentials.getEmail(), credentials.getPassword(),
+			OAuth2AccessToken newToken = credentials.getToken();
+			if (newToken == null) {
+				newToken = createToken(credentials.getEmail(), credentials.getPassword(),
 						credentials.getClientId(), credentials.getClientSecret());
 			}
+			synchronized (tokenLock) {
+				this.credentials = credentials;
+				setToken(newToken);
+			}
 		}
 	}
 
 	public void clear() {
-		this.token = null;
-		this.credentials = null;
+		synchronized (tokenLock) {
+			setToken(null);
+			this.credentials = null;
+		}
 	}
 
 	public OAuth2AccessToken getToken() {
-		if (token == null) {
+		OAuth2AccessToken currentToken = token;
+		if (currentToken == null) {
 			return null;
 		}
 
-		if (token.getExpiresIn() < 50) { // 50 seconds before expiration? Then refresh it.
-			token = refreshToken(token, credentials.getEmail(), credentials.getPassword(),
-					credentials.getClientId(), credentials.getClientSecret());
+		if (currentToken.getExpiresIn() < REFRESH_MARGIN_SECONDS) {
+			currentToken = refreshIfCurrent(currentToken);
 		}
 
-		return token;
+		return currentToken;
 	}
 
 	public String getAuthorizationHeader() {
-		if (token != null) {
-			return token.getTokenType() + " " + token.getValue();
+		OAuth2AccessToken currentToken = getToken();
+		if (currentToken != null) {
+			return currentToken.getTokenType() + " " + currentToken.getValue();
 		}
 		return null;
 	}
 
+	/**
+	 * Refresh the token unless another thread has already replaced it, in which case its replacement is returned.
+	 */
+	private OAuth2AccessToken refreshIfCurrent(OAuth2AccessToken staleToken) {
+		synchronized (tokenLock) {
+			if (token != staleToken) {
+				return token;
+			}
+			CloudCredentials currentCredentials = credentials;
+			setToken(refreshToken(staleToken, currentCredentials.getEmail(), currentCredentials.getPassword(),
+					currentCredentials.getClientId(), currentCredentials.getClientSecret()));
+			return token;
+		}
+	}
+
+	/**
+	 * Replace the token and schedule its background refresh. Must be called holding the token lock.
+	 */
+	private void setToken(OAuth2AccessToken newToken) {
+		token = newToken;
+		if (scheduledRefresh != null) {
+			scheduledRefresh.cancel(false);
+			scheduledRefresh = null;
+		}
+		if (newToken != null && newToken.getRefreshToken() != null && newToken.getExpiration() != null &&
+				newToken.getExpiresIn() > BACKGROUND_REFRESH_MARGIN_SECONDS) {
+			scheduledRefresh = tokenRefresher.schedule(new BackgroundRefresh(this, newToken),
+					newToken.getExpiresIn() - BACKGROUND_REFRESH_MARGIN_SECONDS, TimeUnit.SECONDS);
+		}
+	}
+
 	private OAuth2AccessToken createToken(String username, String password, String clientId, String clientSecret) {
 		OAuth2ProtectedResourceDetails resource = getResourceDetails(username, password, clientId, clientSecret);
 		AccessTokenRequest request = createAccessTokenRequest(username, password);
@@ -127,7 +194,7 @@ public class OauthClient {
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public void changePassword(String oldPassword, String newPassword) {
 		HttpHeaders headers = new HttpHeaders();
-		headers.add(AUTHORIZATION_HEADER_KEY, token.getTokenType() + " " + token.getValue());
+		headers.add(AUTHORIZATION_HEADER_KEY, getAuthorizationHeader());
 		HttpEntity info = new HttpEntity(headers);
 		ResponseEntity<String> response = restTemplate.exchange(authorizationUrl + "/userinfo", HttpMethod.GET, info, String.class);
 		Map<String, Object> responseMap = JsonUtil.convertJsonToMap(response.getBody());
@@ -155,6 +222,35 @@ public class OauthClient {
 		return request;
 	}
 
+	/**
+	 * Refreshes a token shortly before it expires, holding the client weakly so that a discarded client can be
+	 * collected without waiting for its token to expire.
+	 */
+	private static class BackgroundRefresh implements Runnable {
+
+		private final WeakReference<OauthClient> clientRef;
+
+		private final OAuth2AccessToken scheduledToken;
+
+		BackgroundRefresh(OauthClient client, OAuth2AccessToken scheduledToken) {
+			this.clientRef = new WeakReference<OauthClient>(client);
+			this.scheduledToken = scheduledToken;
+		}
+
+		public void run() {
+			OauthClient client = clientRef.get();
+			if (client == null) {
+				return;
+			}
+			try {
+				client.refreshIfCurrent(scheduledToken);
+			} catch (RuntimeException e) {
+				// the token will be refreshed by the next caller finding it about to expire
+				client.logger.debug("Background refresh of the access token failed", e);
+			}
+		}
+	}
+
 	private OAuth2ProtectedResourceDetails getResourceDetails(String username, String password, String clientId, String clientSecret) {
 		ResourceOwnerPasswordResourceDetails resource = new ResourceOwnerPasswordResourceDetails();
 		resource.setUsername(username);
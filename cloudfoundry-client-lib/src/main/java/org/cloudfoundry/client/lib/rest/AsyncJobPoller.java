@@ -0,0 +1,152 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.cloudfoundry.client.lib.CloudOperationException;
+import org.cloudfoundry.client.lib.UploadStatusCallback;
+
+/**
+ * Follows a Cloud Controller job on a scheduler until it is finished, reporting its status to an
+ * {@link UploadStatusCallback}. The job is checked quickly at first, then with an exponentially increasing delay up
+ * to a maximum, so short jobs complete fast without polling long ones too often.
+ *
+ * The poller is the future of the job: it completes when the job has finished or failed, or when the callback
+ * unsubscribes. A failed job completes it with a {@link CloudOperationException}.
+ */
+abstract class AsyncJobPoller implements Future<Void>, Runnable {
+
+	private final ScheduledExecutorService scheduler;
+
+	private final UploadStatusCallback callback;
+
+	private final long maxDelay;
+
+	private final CountDownLatch done = new CountDownLatch(1);
+
+	private volatile long delay;
+
+	private volatile String jobId;
+
+	private volatile Throwable failure;
+
+	private volatile boolean cancelled;
+
+	private volatile ScheduledFuture<?> nextPoll;
+
+	AsyncJobPoller(ScheduledExecutorService scheduler, UploadStatusCallback callback, long initialDelay, long maxDelay) {
+		this.scheduler = scheduler;
+		this.callback = callback;
+		this.delay = initialDelay;
+		this.maxDelay = Math.max(initialDelay, maxDelay);
+	}
+
+	/**
+	 * Get the current state of a job.
+	 *
+	 * @param jobId the guid of the job
+	 * @return the entity of the job
+	 */
+	protected abstract Map<String, String> getJobEntity(String jobId);
+
+	/**
+	 * Start following the job described by the response to its creation.
+	 */
+	void start(Map<String, String> jobEntity) {
+		jobId = jobEntity.get("guid");
+		process(jobEntity);
+	}
+
+	public void run() {
+		if (isDone()) {
+			return;
+		}
+		try {
+			process(getJobEntity(jobId));
+		} catch (Throwable t) {
+			failure = t;
+			done.countDown();
+		}
+	}
+
+	private void process(Map<String, String> jobEntity) {
+		String jobStatus = jobEntity.get("status");
+		boolean unsubscribe = callback.onProgress(jobStatus);
+		if ("failed".equals(jobStatus)) {
+			failure = new CloudOperationException("Job " + jobId + " failed");
+		}
+		if (unsubscribe || "finished".equals(jobStatus) || "failed".equals(jobStatus) || cancelled) {
+			done.countDown();
+			return;
+		}
+		long currentDelay = delay;
+		delay = Math.min(currentDelay * 2, maxDelay);
+		nextPoll = scheduler.schedule(this, currentDelay, TimeUnit.MILLISECONDS);
+	}
+
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if (isDone()) {
+			return false;
+		}
+		cancelled = true;
+		ScheduledFuture<?> poll = nextPoll;
+		if (poll != null) {
+			poll.cancel(mayInterruptIfRunning);
+		}
+		done.countDown();
+		return true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	public Void get() throws InterruptedException, ExecutionException {
+		done.await();
+		return result();
+	}
+
+	public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!done.await(timeout, unit)) {
+			throw new TimeoutException("Job " + jobId + " still running");
+		}
+		return result();
+	}
+
+	private Void result() throws ExecutionException {
+		if (cancelled) {
+			throw new CancellationException("Stopped following job " + jobId);
+		}
+		if (failure != null) {
+			throw new ExecutionException(failure);
+		}
+		return null;
+	}
+}
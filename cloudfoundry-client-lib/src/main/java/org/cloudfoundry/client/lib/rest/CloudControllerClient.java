@@ -17,9 +17,13 @@
 package org.cloudfoundry.client.lib.rest;
 
 import org.cloudfoundry.client.lib.ApplicationLogListener;
+import org.cloudfoundry.client.lib.BulkOperationResult;
 import org.cloudfoundry.client.lib.ClientHttpResponseCallback;
 import org.cloudfoundry.client.lib.CloudCredentials;
+import org.cloudfoundry.client.lib.CompressionMetrics;
+import org.cloudfoundry.client.lib.FileContentListener;
 import org.cloudfoundry.client.lib.RestLogCallback;
+import org.cloudfoundry.client.lib.StagingLogListener;
 import org.cloudfoundry.client.lib.StartingInfo;
 import org.cloudfoundry.client.lib.StreamingLogToken;
 import org.cloudfoundry.client.lib.UploadStatusCallback;
@@ -44,10 +48,13 @@ import org.springframework.web.client.ResponseErrorHandler;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 /**
  * Interface defining operations available for the cloud controller REST client implementations
@@ -66,6 +73,8 @@ public interface CloudControllerClient {
 
 	List<CloudSpace> getSpaces();
 
+	Iterator<CloudSpace> iterateSpaces();
+
 	List<CloudOrganization> getOrganizations();
 
 	OAuth2AccessToken login();
@@ -84,6 +93,8 @@ public interface CloudControllerClient {
 
 	List<CloudService> getServices();
 
+	Iterator<CloudService> iterateServices();
+
 	void createService(CloudService service);
 
 	void createUserProvidedService(CloudService service, Map<String, Object> credentials);
@@ -104,6 +115,12 @@ public interface CloudControllerClient {
 
 	List<CloudApplication> getApplications();
 
+	List<CloudApplication> getApplications(boolean loadDetails);
+
+	Iterator<CloudApplication> iterateApplications();
+
+	void loadApplicationDetails(List<CloudApplication> apps);
+
 	CloudApplication getApplication(String appName);
 
 	CloudApplication getApplication(UUID appGuid);
@@ -120,6 +137,9 @@ public interface CloudControllerClient {
 
 	void uploadApplication(String appName, ApplicationArchive archive, UploadStatusCallback callback) throws IOException;
 
+	Future<Void> uploadApplicationAsync(String appName, ApplicationArchive archive, UploadStatusCallback callback)
+			throws IOException;
+
 	StartingInfo startApplication(String appName);
 
 	void debugApplication(String appName, CloudApplication.DebugMode mode);
@@ -138,6 +158,8 @@ public interface CloudControllerClient {
 
 	void updateApplicationInstances(String appName, int instances);
 
+	BulkOperationResult updateApplications(Map<String, Map<String, Object>> appRequests, int maxConcurrency);
+
 	void updateApplicationServices(String appName, List<String> services);
 
 	void updateApplicationStaging(String appName, Staging staging);
@@ -158,6 +180,15 @@ public interface CloudControllerClient {
 
 	String getFile(String appName, int instanceIndex, String filePath, int startPosition, int endPosition);
 
+	void getFile(String appName, int instanceIndex, String filePath, int startPosition, int endPosition,
+				 OutputStream out);
+
+	void getFile(String appName, int instanceIndex, String filePath, File destination, int segments)
+			throws IOException;
+
+	StreamingLogToken followFile(String appName, int instanceIndex, String filePath, long startPosition,
+								 FileContentListener listener);
+
 	void openFile(String appName, int instanceIndex, String filePath, ClientHttpResponseCallback callback);
 
 	void bindService(String appName, String serviceName);
@@ -174,6 +205,8 @@ public interface CloudControllerClient {
 
 	String getStagingLogs(StartingInfo info, int offset);
 
+	void streamStagingLogs(StartingInfo info, StagingLogListener listener);
+
 	List<CloudStack> getStacks();
 
 	CloudStack getStack(String name);
@@ -199,6 +232,8 @@ public interface CloudControllerClient {
 
 	List<CloudRoute> getRoutes(String domainName);
 
+	Iterator<CloudRoute> iterateRoutes(String domainName);
+
 	void addRoute(String host, String domainName);
 
 	void deleteRoute(String host, String domainName);
@@ -210,4 +245,14 @@ public interface CloudControllerClient {
 	void unRegisterRestLogListener(RestLogCallback callBack);
 
 	List<CloudRoute> deleteOrphanedRoutes();
+
+	void setMaxConcurrentRequests(int maxConcurrentRequests);
+
+	void setJobPollingDelays(long initialDelay, long maxDelay);
+
+	void setResolutionCacheTimeout(long timeout);
+
+	void clearCaches();
+
+	CompressionMetrics getCompressionMetrics();
 }
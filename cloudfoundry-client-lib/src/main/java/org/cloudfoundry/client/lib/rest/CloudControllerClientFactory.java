@@ -19,14 +19,15 @@ package org.cloudfoundry.client.lib.rest;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
 
 import org.cloudfoundry.client.lib.CloudCredentials;
+import org.cloudfoundry.client.lib.HttpConnectionConfiguration;
 import org.cloudfoundry.client.lib.HttpProxyConfiguration;
 import org.cloudfoundry.client.lib.domain.CloudSpace;
 import org.cloudfoundry.client.lib.oauth2.OauthClient;
 import org.cloudfoundry.client.lib.util.RestUtil;
+import org.cloudfoundry.client.lib.util.TimedCache;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.type.TypeReference;
 import org.springframework.web.client.RestTemplate;
@@ -46,17 +47,29 @@ public class CloudControllerClientFactory {
 
 	private final HttpProxyConfiguration httpProxyConfiguration;
 	private final boolean trustSelfSignedCerts;
+	private final HttpConnectionConfiguration httpConnectionConfiguration;
 
 	private ObjectMapper objectMapper;
 
-	private final Map<URL, Map<String, Object>> infoCache = new HashMap<URL, Map<String, Object>>();
+	private final TimedCache<URL, Map<String, Object>> infoCache =
+			new TimedCache<URL, Map<String, Object>>(CloudControllerClientImpl.DEFAULT_INFO_CACHE_TIMEOUT);
 
 	public CloudControllerClientFactory(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
+		this(httpProxyConfiguration, trustSelfSignedCerts, null);
+	}
+
+	/**
+	 * @param httpConnectionConfiguration the tuning of the http connection pools, or null for the defaults
+	 */
+	public CloudControllerClientFactory(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts,
+	                                    HttpConnectionConfiguration httpConnectionConfiguration) {
 		this.restUtil = new RestUtil();
-		this.restTemplate = restUtil.createRestTemplate(httpProxyConfiguration, trustSelfSignedCerts);
+		this.restTemplate = restUtil.createRestTemplate(httpProxyConfiguration, trustSelfSignedCerts,
+				httpConnectionConfiguration);
 
 		this.httpProxyConfiguration = httpProxyConfiguration;
 		this.trustSelfSignedCerts = trustSelfSignedCerts;
+		this.httpConnectionConfiguration = httpConnectionConfiguration;
 
 		this.objectMapper = new ObjectMapper();
 	}
@@ -66,8 +79,10 @@ public class CloudControllerClientFactory {
 		createOauthClient(cloudControllerUrl);
 		LoggregatorClient loggregatorClient = new LoggregatorClient(trustSelfSignedCerts);
 
-		return new CloudControllerClientImpl(cloudControllerUrl, restTemplate, oauthClient, loggregatorClient,
-				cloudCredentials, sessionSpace);
+		CloudControllerClientImpl client = new CloudControllerClientImpl(cloudControllerUrl, restTemplate, oauthClient,
+				loggregatorClient, cloudCredentials, sessionSpace);
+		client.setInfoCache(infoCache);
+		return client;
 	}
 
 	public CloudControllerClient newCloudController(URL cloudControllerUrl, CloudCredentials cloudCredentials,
@@ -75,8 +90,10 @@ public class CloudControllerClientFactory {
 		createOauthClient(cloudControllerUrl);
 		LoggregatorClient loggregatorClient = new LoggregatorClient(trustSelfSignedCerts);
 
-		return new CloudControllerClientImpl(cloudControllerUrl, restTemplate, oauthClient, loggregatorClient,
-				cloudCredentials, orgName, spaceName);
+		CloudControllerClientImpl client = new CloudControllerClientImpl(cloudControllerUrl, restTemplate, oauthClient,
+				loggregatorClient, cloudCredentials, orgName, spaceName);
+		client.setInfoCache(infoCache);
+		return client;
 	}
 
 	public RestTemplate getRestTemplate() {
@@ -90,21 +107,28 @@ public class CloudControllerClientFactory {
 	private void createOauthClient(URL cloudControllerUrl) {
 		Map<String, Object> infoMap = getInfoMap(cloudControllerUrl);
 		URL authorizationEndpoint = getAuthorizationEndpoint(infoMap, cloudControllerUrl);
-		this.oauthClient = restUtil.createOauthClient(authorizationEndpoint, httpProxyConfiguration, trustSelfSignedCerts);
+		this.oauthClient = restUtil.createOauthClient(authorizationEndpoint, httpProxyConfiguration, trustSelfSignedCerts,
+				httpConnectionConfiguration);
 	}
 
+	/**
+	 * The /v2/info response is not user specific, so it is cached and shared with the clients created by this factory.
+	 */
 	private Map<String, Object> getInfoMap(URL cloudControllerUrl) {
-		if (infoCache.containsKey(cloudControllerUrl)) {
-			return infoCache.get(cloudControllerUrl);
+		Map<String, Object> infoMap = infoCache.get(cloudControllerUrl);
+		if (infoMap != null) {
+			return infoMap;
 		}
 
-		String s = restTemplate.getForObject(cloudControllerUrl + "/info", String.class);
+		String s = restTemplate.getForObject(cloudControllerUrl + "/v2/info", String.class);
 
 		try {
-			return objectMapper.readValue(s, new TypeReference<Map<String, Object>>() {});
+			infoMap = objectMapper.readValue(s, new TypeReference<Map<String, Object>>() {});
 		} catch (IOException e) {
-			throw new RuntimeException("Error getting /info from Cloud Controller", e);
+			throw new RuntimeException("Error getting /v2/info from Cloud Controller", e);
 		}
+		infoCache.put(cloudControllerUrl, infoMap);
+		return infoMap;
 	}
 
 	private URL getAuthorizationEndpoint(Map<String, Object> infoMap, URL cloudControllerUrl) {
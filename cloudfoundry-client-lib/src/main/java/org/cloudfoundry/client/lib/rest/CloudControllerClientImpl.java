@@ -19,14 +19,21 @@ package org.cloudfoundry.client.lib.rest;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.cloudfoundry.client.lib.ApplicationLogListener;
+import org.cloudfoundry.client.lib.BulkOperationResult;
 import org.cloudfoundry.client.lib.ClientHttpResponseCallback;
 import org.cloudfoundry.client.lib.CloudCredentials;
 import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.cloudfoundry.client.lib.CompressionMetrics;
 import org.cloudfoundry.client.lib.RestLogCallback;
+import org.cloudfoundry.client.lib.FileContentListener;
+import org.cloudfoundry.client.lib.StagingLogListener;
 import org.cloudfoundry.client.lib.StartingInfo;
 import org.cloudfoundry.client.lib.StreamingLogToken;
 import org.cloudfoundry.client.lib.UploadStatusCallback;
+import org.cloudfoundry.client.lib.archive.AbstractApplicationArchiveEntry;
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
+import org.cloudfoundry.client.lib.archive.ContentBudget;
+import org.cloudfoundry.client.lib.archive.DigestCache;
 import org.cloudfoundry.client.lib.archive.DirectoryApplicationArchive;
 import org.cloudfoundry.client.lib.archive.ZipApplicationArchive;
 import org.cloudfoundry.client.lib.domain.ApplicationLog;
@@ -51,56 +58,87 @@ import org.cloudfoundry.client.lib.domain.InstanceStats;
 import org.cloudfoundry.client.lib.domain.InstancesInfo;
 import org.cloudfoundry.client.lib.domain.Staging;
 import org.cloudfoundry.client.lib.domain.UploadApplicationPayload;
+import org.cloudfoundry.client.lib.io.PipedZipInputStream;
 import org.cloudfoundry.client.lib.oauth2.OauthClient;
+import org.cloudfoundry.client.lib.util.BoundedTaskExecutor;
 import org.cloudfoundry.client.lib.util.CloudEntityResourceMapper;
 import org.cloudfoundry.client.lib.util.CloudUtil;
 import org.cloudfoundry.client.lib.util.JsonUtil;
+import org.cloudfoundry.client.lib.util.StreamingHttpComponentsRequest;
+import org.cloudfoundry.client.lib.util.TimedCache;
+import org.cloudfoundry.client.lib.util.TimeoutAwareHttpRequestFactory;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriTemplate;
 
 import javax.websocket.ClientEndpointConfig;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
-import java.net.Socket;
-import java.net.SocketException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.zip.ZipFile;
 
 /**
  * Abstract implementation of the CloudControllerClient intended to serve as the base.
  *
+ * Instances are thread-safe and meant to be shared: the controller, space and HTTP plumbing of a client are fixed
+ * when it is constructed, the credentials are replaced as a whole when the password is changed, and the caches and
+ * pools it uses are concurrent. {@link #setResponseErrorHandler(ResponseErrorHandler)} is a configuration method to
+ * be called before the client is shared.
+ *
  * @author Ramnivas Laddad
  * @author A.B.Srinivasan
  * @author Jennifer Hickey
@@ -114,14 +152,61 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	private static final String LOGS_LOCATION = "logs";
 	private static final int JOB_POLLING_PERIOD = 5000; // matches that of gcf
+	private static final int JOB_POLLING_INITIAL_DELAY = 250;
+	private static final int STAGING_LOG_READ_TIMEOUT = 5 * 60 * 1000;
+	private static final long MIN_FILE_SEGMENT_SIZE = 1024 * 1024;
+	private static final int FILE_SEGMENT_ATTEMPTS = 3;
+	private static final long FILE_FOLLOW_INITIAL_DELAY = 500;
+	private static final long FILE_FOLLOW_MAX_DELAY = 10 * 1000;
+	private static final ScheduledExecutorService pollingScheduler =
+			Executors.newScheduledThreadPool(2, new ThreadFactory() {
+				private final AtomicInteger threadCount = new AtomicInteger();
+
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "cloudfoundry-poller-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+	private static final long DEFAULT_RESOLUTION_CACHE_TIMEOUT = 60 * 1000;
+	static final long DEFAULT_INFO_CACHE_TIMEOUT = 5 * 60 * 1000;
+	private static final long RANGE_SUPPORT_CACHE_TIMEOUT = 10 * 60 * 1000;
+	private static final Pattern PAGE_PARAMETER_PATTERN = Pattern.compile("([?&]page=)(\\d+)");
+
+	private static final RequestCallback RESOURCE_PAGE_REQUEST_CALLBACK = new RequestCallback() {
+		public void doWithRequest(ClientHttpRequest request) throws IOException {
+			request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		}
+	};
+
+
 	private final Log logger;
-	protected CloudCredentials cloudCredentials;
-	private OauthClient oauthClient;
-	private CloudSpace sessionSpace;
-	private CloudEntityResourceMapper resourceMapper = new CloudEntityResourceMapper();
-	private RestTemplate restTemplate;
-	private URL cloudControllerUrl;
-	private LoggregatorClient loggregatorClient;
+	protected volatile CloudCredentials cloudCredentials;
+	private final OauthClient oauthClient;
+	private final CloudSpace sessionSpace;
+	private final CloudEntityResourceMapper resourceMapper = new CloudEntityResourceMapper();
+	private final RestTemplate restTemplate;
+	private final URL cloudControllerUrl;
+	private final LoggregatorClient loggregatorClient;
+	private final BoundedTaskExecutor taskExecutor = new BoundedTaskExecutor("cloudfoundry-client");
+	private volatile int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+	private volatile DigestCache digestCache;
+	private volatile ContentBudget uploadContentBudget = new ContentBudget();
+	private volatile int uploadQueueDepth = PipedZipInputStream.DEFAULT_QUEUE_DEPTH;
+	private volatile int uploadBufferSize = PipedZipInputStream.DEFAULT_BUFFER_SIZE;
+	private volatile long jobPollingInitialDelay = JOB_POLLING_INITIAL_DELAY;
+	private volatile long jobPollingMaxDelay = JOB_POLLING_PERIOD;
+	// /v2/info is not user specific, the cache may be shared with the factory and the other clients it created
+	private volatile TimedCache<URL, Map<String, Object>> infoCache =
+			new TimedCache<URL, Map<String, Object>>(DEFAULT_INFO_CACHE_TIMEOUT);
+	private final TimedCache<String, UUID> appGuidCache = new TimedCache<String, UUID>(DEFAULT_RESOLUTION_CACHE_TIMEOUT);
+	private final TimedCache<String, UUID> serviceGuidCache =
+			new TimedCache<String, UUID>(DEFAULT_RESOLUTION_CACHE_TIMEOUT);
+	private final TimedCache<String, UUID> domainGuidCache = new TimedCache<String, UUID>(DEFAULT_RESOLUTION_CACHE_TIMEOUT);
+	private final TimedCache<String, UUID> stackGuidCache = new TimedCache<String, UUID>(DEFAULT_RESOLUTION_CACHE_TIMEOUT);
+	private final TimedCache<String, Boolean> rangeSupportCache =
+			new TimedCache<String, Boolean>(RANGE_SUPPORT_CACHE_TIMEOUT);
 
 	/**
 	 * Only for unit tests. This works around the fact that the initialize method is called within the constructor and
@@ -129,6 +214,11 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	 */
 	protected CloudControllerClientImpl() {
 		logger = LogFactory.getLog(getClass().getName());
+		oauthClient = null;
+		sessionSpace = null;
+		restTemplate = null;
+		cloudControllerUrl = null;
+		loggregatorClient = null;
 	}
 
 	public CloudControllerClientImpl(URL cloudControllerUrl, RestTemplate restTemplate,
@@ -136,26 +226,6 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 									 CloudCredentials cloudCredentials, CloudSpace sessionSpace) {
 		logger = LogFactory.getLog(getClass().getName());
 
-		initialize(cloudControllerUrl, restTemplate, oauthClient, loggregatorClient, cloudCredentials);
-
-		this.sessionSpace = sessionSpace;
-	}
-
-	public CloudControllerClientImpl(URL cloudControllerUrl, RestTemplate restTemplate,
-									 OauthClient oauthClient, LoggregatorClient loggregatorClient,
-									 CloudCredentials cloudCredentials, String orgName, String spaceName) {
-		logger = LogFactory.getLog(getClass().getName());
-		CloudControllerClientImpl tempClient =
-				new CloudControllerClientImpl(cloudControllerUrl, restTemplate,
-						oauthClient, loggregatorClient, cloudCredentials, null);
-
-		initialize(cloudControllerUrl, restTemplate, oauthClient, loggregatorClient, cloudCredentials);
-
-		this.sessionSpace = validateSpaceAndOrg(spaceName, orgName, tempClient);
-	}
-
-	private void initialize(URL cloudControllerUrl, RestTemplate restTemplate, OauthClient oauthClient,
-							LoggregatorClient loggregatorClient, CloudCredentials cloudCredentials) {
 		Assert.notNull(cloudControllerUrl, "CloudControllerUrl cannot be null");
 		Assert.notNull(restTemplate, "RestTemplate cannot be null");
 		Assert.notNull(oauthClient, "OauthClient cannot be null");
@@ -172,9 +242,19 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		this.oauthClient = oauthClient;
 
 		this.loggregatorClient = loggregatorClient;
+
+		this.sessionSpace = sessionSpace;
+	}
+
+	public CloudControllerClientImpl(URL cloudControllerUrl, RestTemplate restTemplate,
+									 OauthClient oauthClient, LoggregatorClient loggregatorClient,
+									 CloudCredentials cloudCredentials, String orgName, String spaceName) {
+		this(cloudControllerUrl, restTemplate, oauthClient, loggregatorClient, cloudCredentials,
+				validateSpaceAndOrg(spaceName, orgName, new CloudControllerClientImpl(cloudControllerUrl, restTemplate,
+						oauthClient, loggregatorClient, cloudCredentials, null)));
 	}
 
-	private CloudSpace validateSpaceAndOrg(String spaceName, String orgName, CloudControllerClientImpl client) {
+	private static CloudSpace validateSpaceAndOrg(String spaceName, String orgName, CloudControllerClientImpl client) {
 		List<CloudSpace> spaces = client.getSpaces();
 
 		for (CloudSpace space : spaces) {
@@ -197,6 +277,109 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		return this.cloudControllerUrl;
 	}
 
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		Assert.isTrue(maxConcurrentRequests > 0, "Max concurrent requests must be greater than 0");
+		this.maxConcurrentRequests = maxConcurrentRequests;
+	}
+
+	public void setJobPollingDelays(long initialDelay, long maxDelay) {
+		Assert.isTrue(initialDelay > 0 && maxDelay > 0, "Job polling delays must be greater than 0");
+		this.jobPollingInitialDelay = initialDelay;
+		this.jobPollingMaxDelay = maxDelay;
+	}
+
+	public void setResolutionCacheTimeout(long timeout) {
+		appGuidCache.setTimeToLive(timeout);
+		serviceGuidCache.setTimeToLive(timeout);
+		domainGuidCache.setTimeToLive(timeout);
+		stackGuidCache.setTimeToLive(timeout);
+	}
+
+	/**
+	 * Set how long the response of the /v2/info endpoint is remembered by this client. A timeout of 0 disables the
+	 * info cache. The user specific /info endpoint, which reports the current usage, is always requested. This
+	 * client stops sharing the info cache of the factory that created it, which is left as is.
+	 *
+	 * @param timeout the time in milliseconds info is remembered
+	 */
+	public void setInfoCacheTimeout(long timeout) {
+		infoCache = new TimedCache<URL, Map<String, Object>>(timeout);
+	}
+
+	/**
+	 * Set the persistent cache of file digests used when uploading an application from a directory or an archive
+	 * file, so that the files and archive entries that haven't changed since a previous upload aren't read to compute
+	 * their digest. The cache is saved after each upload. Disabled by default.
+	 *
+	 * @param digestCache the digest cache, for example stored in {@link DigestCache#getDefaultFile()}, or null
+	 */
+	public void setDigestCache(DigestCache digestCache) {
+		this.digestCache = digestCache;
+	}
+
+	/**
+	 * Set the memory budget for the content of the files read to compute their digest when uploading an application,
+	 * so that the small files that have to be uploaded are not read a second time. The budget is shared by the
+	 * uploads of this client. Defaults to a {@link ContentBudget#ContentBudget() default budget}.
+	 *
+	 * @param uploadContentBudget the content budget, or null to always read the files again
+	 */
+	public void setUploadContentBudget(ContentBudget uploadContentBudget) {
+		this.uploadContentBudget = uploadContentBudget;
+	}
+
+	/**
+	 * Set how the zip of the application files is produced and sent when uploading an application. With a queue depth
+	 * above 0 the zip is compressed on a background thread into a bounded number of buffers while the request body is
+	 * streamed to the connection with chunked transfer encoding, so that an upload takes about as long as the slower
+	 * of compression and transfer rather than their sum. With a queue depth of 0 the zip is compressed on the sending
+	 * thread and the whole body is buffered, then sent with its length. Defaults to
+	 * {@link PipedZipInputStream#DEFAULT_QUEUE_DEPTH} buffers of {@link PipedZipInputStream#DEFAULT_BUFFER_SIZE}
+	 * bytes.
+	 *
+	 * @param queueDepth the number of compressed buffers waiting to be sent, or 0 to buffer the whole body
+	 * @param bufferSize the size in bytes of the buffers
+	 */
+	public void setUploadPipelining(int queueDepth, int bufferSize) {
+		Assert.isTrue(queueDepth >= 0, "QueueDepth must not be negative");
+		Assert.isTrue(bufferSize > 0, "BufferSize must be greater than 0");
+		this.uploadBufferSize = bufferSize;
+		this.uploadQueueDepth = queueDepth;
+	}
+
+	private void saveDigestCache(DigestCache cache) {
+		try {
+			cache.save();
+		} catch (IOException e) {
+			logger.warn("Unable to save the digest cache: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Share the cache of /v2/info responses with the factory that created this client.
+	 */
+	void setInfoCache(TimedCache<URL, Map<String, Object>> infoCache) {
+		Assert.notNull(infoCache, "InfoCache cannot be null");
+		this.infoCache = infoCache;
+	}
+
+	public void clearCaches() {
+		// leave the cache shared with the other clients of the factory alone
+		infoCache = new TimedCache<URL, Map<String, Object>>(infoCache.getTimeToLive());
+		appGuidCache.clear();
+		serviceGuidCache.clear();
+		domainGuidCache.clear();
+		stackGuidCache.clear();
+		rangeSupportCache.clear();
+	}
+
+	public CompressionMetrics getCompressionMetrics() {
+		if (restTemplate instanceof LoggingRestTemplate) {
+			return ((LoggingRestTemplate) restTemplate).getCompressionMetrics();
+		}
+		return new CompressionMetrics();
+	}
+
 	public void updatePassword(String newPassword) {
 		updatePassword(cloudCredentials, newPassword);
 	}
@@ -245,6 +428,132 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 
+	public void getFile(String appName, int instanceIndex, String filePath, int startPosition, int endPosition,
+						OutputStream out) {
+		Assert.notNull(out, "OutputStream must not be null");
+		String urlPath = getFileUrlPath();
+		Object appId = getFileAppId(appName);
+		doStreamFile(urlPath, appId, String.valueOf(instanceIndex), filePath, startPosition, endPosition, out);
+	}
+
+	/**
+	 * Download a file in byte range segments fetched concurrently and written in place into the destination file.
+	 * Each segment is retried on its own, from the last byte written, when it fails with an I/O error or a server
+	 * error. Falls back to a single stream when the file endpoint doesn't support ranges. The destination is deleted
+	 * when the download fails, rather than left at its full length with missing content.
+	 */
+	public void getFile(String appName, int instanceIndex, String filePath, File destination, int segments)
+			throws IOException {
+		Assert.notNull(destination, "Destination file must not be null");
+		Assert.isTrue(segments > 0, "Segment count must be greater than 0");
+		String urlPath = getFileUrlPath();
+		Object appId = getFileAppId(appName);
+		String instance = String.valueOf(instanceIndex);
+		long length = segments > 1 ? getRangedFileLength(urlPath, appId, instance, filePath) : -1;
+		RandomAccessFile file = new RandomAccessFile(destination, "rw");
+		boolean complete = false;
+		try {
+			FileChannel channel = file.getChannel();
+			if (length < 0) {
+				file.setLength(0);
+				doStreamFile(urlPath, appId, instance, filePath, -1, -1, new FileChannelOutputStream(channel, 0));
+			} else {
+				file.setLength(length);
+				long segmentSize = Math.max((length + segments - 1) / segments, MIN_FILE_SEGMENT_SIZE);
+				List<Callable<Object>> downloads = new ArrayList<Callable<Object>>(segments);
+				for (long first = 0; first < length; first += segmentSize) {
+					downloads.add(new FileSegmentDownload(urlPath, appId, instance, filePath, channel, first,
+							Math.min(first + segmentSize, length) - 1));
+				}
+				// returns once no segment is writing any more, even when one of them failed
+				taskExecutor.invokeAll(downloads, segments);
+			}
+			complete = true;
+		} finally {
+			file.close();
+			if (!complete) {
+				destination.delete();
+			}
+		}
+	}
+
+	/**
+	 * Get the length of a file from the Content-Range of a ranged HEAD request.
+	 *
+	 * @return the length of the file, or -1 if the file endpoint doesn't support ranges
+	 */
+	private long getRangedFileLength(String urlPath, Object app, String instance, String filePath) {
+		String url = getUrl(urlPath);
+		String rangeSupportKey = getRangeSupportKey(urlPath, app, instance);
+		if (Boolean.FALSE.equals(rangeSupportCache.get(rangeSupportKey))) {
+			return -1;
+		}
+		long length;
+		try {
+			length = getRestTemplate().execute(url, HttpMethod.HEAD,
+					new IdentityEncodingRequestCallback("bytes=0-0"),
+					new ResponseExtractor<Long>() {
+						public Long extractData(ClientHttpResponse response) throws IOException {
+							String contentRange = response.getHeaders().getFirst("Content-Range");
+							if (!response.getStatusCode().equals(HttpStatus.PARTIAL_CONTENT) || contentRange == null ||
+									contentRange.endsWith("/*")) {
+								return -1L;
+							}
+							return Long.valueOf(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+						}
+					},
+					app, instance, filePath);
+		} catch (CloudFoundryException e) {
+			if (e.getStatusCode().equals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)) {
+				// must be a 0 byte file
+				return 0;
+			}
+			throw e;
+		}
+		rangeSupportCache.put(rangeSupportKey, length >= 0);
+		return length;
+	}
+
+	/**
+	 * Range support is a property of the server answering for an application instance, so it is recorded per
+	 * instance: the file URL with the application and instance expanded.
+	 */
+	private String getRangeSupportKey(String urlPath, Object app, String instance) {
+		return new UriTemplate(getUrl(urlPath)).expand(app, instance, "").toString();
+	}
+
+	public StreamingLogToken followFile(String appName, int instanceIndex, final String filePath, long startPosition,
+										FileContentListener listener) {
+		Assert.isTrue(startPosition >= 0, "Invalid start position value: " + startPosition);
+		Assert.notNull(listener, "FileContentListener must not be null");
+		final String urlPath = getFileUrlPath();
+		final Object appId = getFileAppId(appName);
+		final String instance = String.valueOf(instanceIndex);
+		// the reads block, so they are made on the task executor and the shared scheduler only times them
+		FileFollower follower = new FileFollower(pollingScheduler, taskExecutor.getExecutorService(), listener,
+				startPosition, FILE_FOLLOW_INITIAL_DELAY, FILE_FOLLOW_MAX_DELAY) {
+			@Override
+			protected long getLength() {
+				// an idle file costs a HEAD request only
+				return getRangedFileLength(urlPath, appId, instance, filePath);
+			}
+
+			@Override
+			protected byte[] read(long start, long end) {
+				ByteArrayOutputStream content = new ByteArrayOutputStream();
+				if (end < 0) {
+					doGetFileByRange(urlPath, appId, instance, filePath, 0, -1, "bytes=0-", content);
+				} else if (end > start) {
+					doGetFileByRange(urlPath, appId, instance, filePath, start, end - 1,
+							"bytes=" + start + "-" + (end - 1), content);
+				}
+				return content.toByteArray();
+			}
+		};
+		follower.start();
+		return follower;
+	}
+
 	public void openFile(String appName, int instanceIndex, String filePath, ClientHttpResponseCallback callback) {
 		String urlPath = getFileUrlPath();
 		Object appId = getFileAppId(appName);
@@ -322,7 +631,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 						.getRequestFactory() : null;
 				if (cfRequestFactory != null) {
 					cfRequestFactory
-							.increaseReadTimeoutForStreamedTailedLogs(5 * 60 * 1000);
+							.setReadTimeoutForCurrentThread(STAGING_LOG_READ_TIMEOUT);
 				}
 				return getRestTemplate().getForObject(
 						stagingFile + "&tail&tail_offset={offset}",
@@ -341,14 +650,67 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 						e);
 			} finally {
 				if (cfRequestFactory != null) {
-					cfRequestFactory
-							.increaseReadTimeoutForStreamedTailedLogs(-1);
+					cfRequestFactory.resetReadTimeoutForCurrentThread();
 				}
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Follow the staging log over a single tail connection, pushing its lines to the listener as soon as they are
+	 * received. The connection is reopened from the last complete line whenever the server closes it or it is lost,
+	 * until the log is no longer available or no new line arrives within the read timeout. Blocks until then.
+	 */
+	public void streamStagingLogs(StartingInfo info, StagingLogListener listener) {
+		Assert.notNull(info, "StartingInfo must not be null");
+		Assert.notNull(listener, "StagingLogListener must not be null");
+		String stagingFile = info.getStagingFile();
+		CloudFoundryClientHttpRequestFactory cfRequestFactory =
+				getRestTemplate().getRequestFactory() instanceof CloudFoundryClientHttpRequestFactory ?
+						(CloudFoundryClientHttpRequestFactory) getRestTemplate().getRequestFactory() : null;
+		try {
+			if (cfRequestFactory != null) {
+				cfRequestFactory.setReadTimeoutForCurrentThread(STAGING_LOG_READ_TIMEOUT);
+			}
+			// one reader for all connections, so that the unterminated end of the log survives a reconnect that finds
+			// the log gone
+			StagingLogReader reader = new StagingLogReader(listener);
+			long offset = 0;
+			while (stagingFile != null) {
+				Map<String, Object> logsRequest = new HashMap<String, Object>();
+				logsRequest.put("offset", offset);
+				try {
+					// a compressed tail would be held back by the server's encoder until enough of it is buffered
+					getRestTemplate().execute(stagingFile + "&tail&tail_offset={offset}", HttpMethod.GET,
+							new IdentityEncodingRequestCallback(null), reader, logsRequest);
+				} catch (CloudFoundryException e) {
+					if (!e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
+						throw e;
+					}
+					// Content is no longer available
+					break;
+				} catch (ResourceAccessException e) {
+					logger.debug("Caught exception while streaming staging logs from offset " + reader.getOffset() +
+							". Caught:" + e, e);
+				}
+				if (reader.getOffset() == offset) {
+					// no new line since the last connection, the log is complete
+					break;
+				}
+				offset = reader.getOffset();
+			}
+			reader.flush();
+			listener.onComplete();
+		} catch (RuntimeException e) {
+			listener.onError(e);
+		} finally {
+			if (cfRequestFactory != null) {
+				cfRequestFactory.resetReadTimeoutForCurrentThread();
+			}
+		}
+	}
+
 	protected RestTemplate getRestTemplate() {
 		return this.restTemplate;
 	}
@@ -365,8 +727,12 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		}
 	}
 
-	protected Map<String, String> doGetLogs(String urlPath, String appName, String instance) {
-		Object appId = getFileAppId(appName);
+	/**
+	 * Get the content of all log files of an instance, fetching at most {@link #maxConcurrentRequests} files at a
+	 * time.
+	 */
+	protected Map<String, String> doGetLogs(final String urlPath, String appName, final String instance) {
+		final Object appId = getFileAppId(appName);
 		String logFiles = doGetFile(urlPath, appId, instance, LOGS_LOCATION, -1, -1);
 		String[] lines = logFiles.split("\n");
 		List<String> fileNames = new ArrayList<String>();
@@ -376,10 +742,21 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 				fileNames.add(parts[0]);
 			}
 		}
-		Map<String, String> logs = new HashMap<String, String>(fileNames.size());
+		List<String> logFileNames = new ArrayList<String>(fileNames.size());
+		List<Callable<String>> downloads = new ArrayList<Callable<String>>(fileNames.size());
 		for (String fileName : fileNames) {
-			String logFile = LOGS_LOCATION + "/" + fileName;
-			logs.put(logFile, doGetFile(urlPath, appId, instance, logFile, -1, -1));
+			final String logFile = LOGS_LOCATION + "/" + fileName;
+			logFileNames.add(logFile);
+			downloads.add(new Callable<String>() {
+				public String call() {
+					return doGetFile(urlPath, appId, instance, logFile, -1, -1);
+				}
+			});
+		}
+		List<String> contents = taskExecutor.invokeAll(downloads, maxConcurrentRequests);
+		Map<String, String> logs = new HashMap<String, String>(fileNames.size());
+		for (int i = 0; i < logFileNames.size(); i++) {
+			logs.put(logFileNames.get(i), contents.get(i));
 		}
 		return logs;
 	}
@@ -396,6 +773,16 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	protected String doGetFile(String urlPath, Object app, String instance, String filePath, int startPosition, int endPosition) {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		Charset charset = doStreamFile(urlPath, app, instance, filePath, startPosition, endPosition, content);
+		return new String(content.toByteArray(), charset);
+	}
+
+	/**
+	 * @return the charset of the file content as declared by the response, or ISO-8859-1 if none was declared
+	 */
+	private Charset doStreamFile(String urlPath, Object app, String instance, String filePath, int startPosition,
+								 int endPosition, OutputStream out) {
 		Assert.isTrue(startPosition >= -1, "Invalid start position value: " + startPosition);
 		Assert.isTrue(endPosition >= -1, "Invalid end position value: " + endPosition);
 		Assert.isTrue(startPosition < 0 || endPosition < 0 || endPosition >= startPosition,
@@ -413,80 +800,60 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		final String range =
 				"bytes=" + (start == -1 ? "" : start) + "-" + (end == -1 ? "" : end);
 
-		return doGetFileByRange(urlPath, app, instance, filePath, start, end, range);
+		return doGetFileByRange(urlPath, app, instance, filePath, start, end, range, out);
 	}
 
-	private String doGetFileByRange(String urlPath, Object app, String instance, String filePath, int start, int end,
-									String range) {
-
-		boolean supportsRanges;
+	private Charset doGetFileByRange(String urlPath, Object app, String instance, String filePath, long start, long end,
+									 String range, OutputStream out) {
+		String url = getUrl(urlPath);
+		String rangeSupportKey = getRangeSupportKey(urlPath, app, instance);
+		boolean sendRange = !Boolean.FALSE.equals(rangeSupportCache.get(rangeSupportKey));
+		FileContentExtractor extractor = new FileContentExtractor(out, start, end);
 		try {
-			supportsRanges = getRestTemplate().execute(getUrl(urlPath),
-					HttpMethod.HEAD,
-					new RequestCallback() {
-						public void doWithRequest(ClientHttpRequest request) throws IOException {
-							request.getHeaders().set("Range", "bytes=0-");
-						}
-					},
-					new ResponseExtractor<Boolean>() {
-						public Boolean extractData(ClientHttpResponse response) throws IOException {
-							return response.getStatusCode().equals(HttpStatus.PARTIAL_CONTENT);
-						}
-					},
-					app, instance, filePath);
+			getRestTemplate().execute(url, HttpMethod.GET, new IdentityEncodingRequestCallback(sendRange ? range : null),
+					extractor, app, instance, filePath);
 		} catch (CloudFoundryException e) {
-			if (e.getStatusCode().equals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)) {
+			if (e.getStatusCode().equals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE) &&
+					(start <= 0 || isEmptyFile(url, app, instance, filePath))) {
 				// must be a 0 byte file
-				return "";
-			} else {
-				throw e;
+				return FileContentExtractor.DEFAULT_CHARSET;
 			}
+			throw e;
 		}
-		HttpHeaders headers = new HttpHeaders();
-		if (supportsRanges) {
-			headers.set("Range", range);
-		}
-		HttpEntity<Object> requestEntity = new HttpEntity<Object>(headers);
-		ResponseEntity<String> responseEntity = getRestTemplate().exchange(getUrl(urlPath),
-				HttpMethod.GET, requestEntity, String.class, app, instance, filePath);
-		String response = responseEntity.getBody();
-		boolean partialFile = false;
-		if (responseEntity.getStatusCode().equals(HttpStatus.PARTIAL_CONTENT)) {
-			partialFile = true;
-		}
-		if (!partialFile && response != null) {
-			if (start == -1) {
-				return response.substring(response.length() - end);
-			} else {
-				if (start >= response.length()) {
-					if (response.length() == 0) {
-						return "";
-					}
-					throw new CloudFoundryException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
-							"The starting position " + start + " is past the end of the file content.");
-				}
-				if (end != -1) {
-					if (end >= response.length()) {
-						end = response.length() - 1;
-					}
-					return response.substring(start, end + 1);
-				} else {
-					return response.substring(start);
-				}
+		if (extractor.isPartialContent()) {
+			rangeSupportCache.put(rangeSupportKey, true);
+		} else if (sendRange && !"bytes=0-".equals(range)) {
+			// a range was asked for and the whole file came back
+			rangeSupportCache.put(rangeSupportKey, false);
+		}
+		return extractor.getCharset();
+	}
+
+	private boolean isEmptyFile(String url, Object app, String instance, String filePath) {
+		try {
+			getRestTemplate().execute(url, HttpMethod.HEAD, new IdentityEncodingRequestCallback("bytes=0-"), null,
+					app, instance, filePath);
+			return false;
+		} catch (CloudFoundryException e) {
+			if (e.getStatusCode().equals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)) {
+				return true;
 			}
+			throw e;
 		}
-		return response;
 	}
 
 	@SuppressWarnings("unchecked")
 	public CloudInfo getInfo() {
 		// info comes from two end points: /info and /v2/info
 
-		String infoV2Json = getRestTemplate().getForObject(getUrl("/v2/info"), String.class);
-		Map<String, Object> infoV2Map = JsonUtil.convertJsonToMap(infoV2Json);
+		Map<String, Object> infoV2Map = getInfoV2Map();
 
+		OAuth2AccessToken accessToken = oauthClient.getToken();
+
+		// decoded from the access token, no request is made
 		Map<String, Object> userMap = getUserInfo((String) infoV2Map.get("user"));
 
+		// not cached, it reports the current usage of the user
 		String infoJson = getRestTemplate().getForObject(getUrl("/info"), String.class);
 		Map<String, Object> infoMap = JsonUtil.convertJsonToMap(infoJson);
 		Map<String, Object> limitMap = (Map<String, Object>) infoMap.get("limits");
@@ -502,7 +869,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		CloudInfo.Limits limits = null;
 		CloudInfo.Usage usage = null;
 		boolean debug = false;
-		if (oauthClient.getToken() != null) {
+		if (accessToken != null) {
 			limits = new CloudInfo.Limits(limitMap);
 			usage = new CloudInfo.Usage(usageMap);
 			debug = CloudUtil.parse(Boolean.class, infoMap.get("allow_debug"));
@@ -516,12 +883,16 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	public List<CloudSpace> getSpaces() {
 		String urlPath = "/v2/spaces?inline-relations-depth=1";
-		List<Map<String, Object>> resourceList = getAllResources(urlPath, null);
-		List<CloudSpace> spaces = new ArrayList<CloudSpace>();
-		for (Map<String, Object> resource : resourceList) {
-			spaces.add(resourceMapper.mapResource(resource, CloudSpace.class));
-		}
-		return spaces;
+		return getAllResources(urlPath, null, CloudEntityResourceMapper.SPACE_READER);
+	}
+
+	public Iterator<CloudSpace> iterateSpaces() {
+		return new PagedResourceIterator<CloudSpace, CloudSpace>("/v2/spaces?inline-relations-depth=1", null,
+				CloudEntityResourceMapper.SPACE_READER) {
+			protected List<CloudSpace> mapPage(List<CloudSpace> spaces) {
+				return spaces;
+			}
+		};
 	}
 
 	public List<CloudOrganization> getOrganizations() {
@@ -550,11 +921,11 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	public void updatePassword(CloudCredentials credentials, String newPassword) {
 		oauthClient.changePassword(credentials.getPassword(), newPassword);
 		CloudCredentials newCloudCredentials = new CloudCredentials(credentials.getEmail(), newPassword);
-		if (cloudCredentials.getProxyUser() != null) {
-			cloudCredentials = newCloudCredentials.proxyForUser(cloudCredentials.getProxyUser());
-		} else {
-			cloudCredentials = newCloudCredentials;
+		String proxyUser = cloudCredentials.getProxyUser();
+		if (proxyUser != null) {
+			newCloudCredentials = newCloudCredentials.proxyForUser(proxyUser);
 		}
+		cloudCredentials = newCloudCredentials;
 	}
 
 	public void unregister() {
@@ -563,21 +934,51 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	public List<CloudService> getServices() {
 		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = getServicesUrlPath(urlVars);
+		CloudEntityResourceMapper.ServiceInstanceReader reader = new CloudEntityResourceMapper.ServiceInstanceReader();
+		List<CloudService> services = getAllResources(urlPath, urlVars, reader);
+		fillInServiceOfferings(reader);
+		return services;
+	}
+
+	public Iterator<CloudService> iterateServices() {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = getServicesUrlPath(urlVars);
+		final CloudEntityResourceMapper.ServiceInstanceReader reader =
+				new CloudEntityResourceMapper.ServiceInstanceReader();
+		return new PagedResourceIterator<CloudService, CloudService>(urlPath, urlVars, reader) {
+			protected List<CloudService> mapPage(List<CloudService> services) {
+				fillInServiceOfferings(reader);
+				return services;
+			}
+		};
+	}
+
+	private String getServicesUrlPath(Map<String, Object> urlVars) {
 		String urlPath = "/v2";
 		if (sessionSpace != null) {
 			urlVars.put("space", sessionSpace.getMeta().getGuid());
 			urlPath = urlPath + "/spaces/{space}";
 		}
-		urlPath = urlPath + "/service_instances?inline-relations-depth=1&return_user_provided_service_instances=true";
-		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
-		List<CloudService> services = new ArrayList<CloudService>();
-		for (Map<String, Object> resource : resourceList) {
-			if (hasEmbeddedResource(resource, "service_plan")) {
-				fillInEmbeddedResource(resource, "service_plan", "service");
+		return urlPath + "/service_instances?inline-relations-depth=1&return_user_provided_service_instances=true";
+	}
+
+	/**
+	 * Fill in the label, provider and version of the service instances read whose service plan didn't embed its
+	 * service offering, requesting each offering only once.
+	 */
+	private void fillInServiceOfferings(CloudEntityResourceMapper.ServiceInstanceReader reader) {
+		for (Map.Entry<String, List<CloudService>> entry : reader.takeUnresolvedServices().entrySet()) {
+			String resp = getRestTemplate().getForObject(getUrl(entry.getKey()), String.class);
+			Map<String, Object> offeringResource = JsonUtil.convertJsonToMap(resp);
+			for (CloudService service : entry.getValue()) {
+				service.setLabel(CloudEntityResourceMapper.getEntityAttribute(offeringResource, "label", String.class));
+				service.setProvider(
+						CloudEntityResourceMapper.getEntityAttribute(offeringResource, "provider", String.class));
+				service.setVersion(
+						CloudEntityResourceMapper.getEntityAttribute(offeringResource, "version", String.class));
 			}
-			services.add(resourceMapper.mapResource(resource, CloudService.class));
 		}
-		return services;
 	}
 
 	public void createService(CloudService service) {
@@ -593,6 +994,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		serviceRequest.put("space_guid", sessionSpace.getMeta().getGuid());
 		serviceRequest.put("name", service.getName());
 		serviceRequest.put("service_plan_guid", cloudServicePlan.getMeta().getGuid());
+		serviceGuidCache.remove(service.getName());
 		getRestTemplate().postForObject(getUrl("/v2/service_instances"), serviceRequest, String.class);
 	}
 
@@ -639,10 +1041,12 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 			serviceRequest.put("syslog_drain_url", syslogDrainUrl);
 		}
 
+		serviceGuidCache.remove(service.getName());
 		getRestTemplate().postForObject(getUrl("/v2/user_provided_service_instances"), serviceRequest, String.class);
 	}
 
 	public CloudService getService(String serviceName) {
+		CloudService cloudService = null;
 		String urlPath = "/v2";
 		Map<String, Object> urlVars = new HashMap<String, Object>();
 		if (sessionSpace != null) {
@@ -652,24 +1056,42 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		urlVars.put("q", "name:" + serviceName);
 		urlPath = urlPath + "/service_instances?q={q}&return_user_provided_service_instances=true";
 		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
-		CloudService cloudService = null;
 		if (resourceList.size() > 0) {
 			final Map<String, Object> resource = resourceList.get(0);
 			if (hasEmbeddedResource(resource, "service_plan")) {
 				fillInEmbeddedResource(resource, "service_plan", "service");
 			}
 			cloudService = resourceMapper.mapResource(resource, CloudService.class);
+			serviceGuidCache.put(serviceName, cloudService.getMeta().getGuid());
 		}
 		return cloudService;
 	}
 
+	/**
+	 * Resolve the name of a service instance, only looking it up when it wasn't resolved recently.
+	 *
+	 * @return the guid of the service instance, or null if there is none with this name
+	 */
+	private UUID getServiceGuid(String serviceName) {
+		UUID guid = serviceGuidCache.get(serviceName);
+		if (guid == null) {
+			CloudService cloudService = getService(serviceName);
+			if (cloudService != null) {
+				guid = cloudService.getMeta().getGuid();
+			}
+		}
+		return guid;
+	}
+
 	public void deleteService(String serviceName) {
 		CloudService cloudService = getService(serviceName);
+		serviceGuidCache.remove(serviceName);
 		doDeleteService(cloudService);
 	}
 
 	public void deleteAllServices() {
 		List<CloudService> cloudServices = getServices();
+		serviceGuidCache.clear();
 		for (CloudService cloudService : cloudServices) {
 			doDeleteService(cloudService);
 		}
@@ -698,22 +1120,150 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	public List<CloudApplication> getApplications() {
+		return getApplications(true);
+	}
+
+	public List<CloudApplication> getApplications(boolean loadDetails) {
 		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = getApplicationsUrlPath(urlVars);
+		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
+		if (loadDetails) {
+			return mapCloudApplications(resourceList);
+		}
+		List<CloudApplication> apps = new ArrayList<CloudApplication>();
+		for (Map<String, Object> resource : resourceList) {
+			processApplicationResource(resource, false);
+			apps.add(new LazyCloudApplication(resourceMapper.mapResource(resource, CloudApplication.class), resource));
+		}
+		return apps;
+	}
+
+	public Iterator<CloudApplication> iterateApplications() {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = getApplicationsUrlPath(urlVars);
+		return new PagedResourceIterator<Map<String, Object>, CloudApplication>(urlPath, urlVars,
+				JsonUtil.MAP_RESOURCE_READER) {
+			private Map<UUID, Map<String, Object>> appSummaries;
+
+			protected List<CloudApplication> mapPage(List<Map<String, Object>> resources) {
+				if (appSummaries == null) {
+					appSummaries = getApplicationSummaries();
+				}
+				return mapCloudApplications(resources, appSummaries);
+			}
+		};
+	}
+
+	private String getApplicationsUrlPath(Map<String, Object> urlVars) {
+		return getApplicationsUrlPath(urlVars, 1);
+	}
+
+	private String getApplicationsUrlPath(Map<String, Object> urlVars, int inlineRelationsDepth) {
 		String urlPath = "/v2";
 		if (sessionSpace != null) {
 			urlVars.put("space", sessionSpace.getMeta().getGuid());
 			urlPath = urlPath + "/spaces/{space}";
 		}
-		urlPath = urlPath + "/apps?inline-relations-depth=1";
-		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
-		List<CloudApplication> apps = new ArrayList<CloudApplication>();
-		for (Map<String, Object> resource : resourceList) {
-			processApplicationResource(resource, true);
-			apps.add(mapCloudApplication(resource));
+		return urlPath + "/apps?inline-relations-depth=" + inlineRelationsDepth;
+	}
+
+	public void loadApplicationDetails(List<CloudApplication> apps) {
+		final List<LazyCloudApplication> lazyApps = new ArrayList<LazyCloudApplication>();
+		for (CloudApplication app : apps) {
+			if (app instanceof LazyCloudApplication && !((LazyCloudApplication) app).isLoaded()) {
+				lazyApps.add((LazyCloudApplication) app);
+			}
+		}
+		if (lazyApps.isEmpty()) {
+			return;
+		}
+		Map<UUID, Map<String, Object>> appSummaries = getApplicationSummaries();
+		List<Callable<Void>> unresolvedApps = new ArrayList<Callable<Void>>();
+		for (final LazyCloudApplication app : lazyApps) {
+			Map<String, Object> appSummary = appSummaries.get(app.getMeta().getGuid());
+			if (appSummary != null) {
+				app.load(appSummary);
+			} else {
+				unresolvedApps.add(new Callable<Void>() {
+					public Void call() {
+						app.load();
+						return null;
+					}
+				});
+			}
+		}
+		taskExecutor.invokeAll(unresolvedApps, maxConcurrentRequests);
+	}
+
+	/**
+	 * Map a listing of application resources, resolving the running instances, URIs and services of all of them
+	 * from a single space summary when a session space is set. Applications missing from the summary, or all of them
+	 * when there is no summary, are resolved individually with at most {@link #maxConcurrentRequests} requests in
+	 * flight.
+	 */
+	private List<CloudApplication> mapCloudApplications(List<Map<String, Object>> resourceList) {
+		return mapCloudApplications(resourceList, getApplicationSummaries());
+	}
+
+	private List<CloudApplication> mapCloudApplications(List<Map<String, Object>> resourceList,
+	                                                    Map<UUID, Map<String, Object>> appSummaries) {
+		List<CloudApplication> apps = new ArrayList<CloudApplication>(resourceList.size());
+		List<Integer> unresolvedIndexes = new ArrayList<Integer>();
+		List<Callable<CloudApplication>> unresolvedApps = new ArrayList<Callable<CloudApplication>>();
+		for (final Map<String, Object> resource : resourceList) {
+			Map<String, Object> appSummary = appSummaries.get(resourceMapper.getGuidOfResource(resource));
+			if (appSummary != null) {
+				apps.add(mapCloudApplication(resource, appSummary));
+			} else {
+				apps.add(null);
+				unresolvedIndexes.add(apps.size() - 1);
+				unresolvedApps.add(new Callable<CloudApplication>() {
+					public CloudApplication call() {
+						processApplicationResource(resource, true);
+						return mapCloudApplication(resource);
+					}
+				});
+			}
+		}
+		List<CloudApplication> resolvedApps = taskExecutor.invokeAll(unresolvedApps, maxConcurrentRequests);
+		for (int i = 0; i < resolvedApps.size(); i++) {
+			apps.set(unresolvedIndexes.get(i), resolvedApps.get(i));
 		}
 		return apps;
 	}
 
+	/**
+	 * Get the application entries of the session space summary, keyed by application guid. Returns an empty map if
+	 * there is no session space or the summary is not available.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<UUID, Map<String, Object>> getApplicationSummaries() {
+		Map<UUID, Map<String, Object>> appSummaries = new HashMap<UUID, Map<String, Object>>();
+		if (sessionSpace == null) {
+			return appSummaries;
+		}
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		urlVars.put("space", sessionSpace.getMeta().getGuid());
+		Map<String, Object> summary;
+		try {
+			String resp = getRestTemplate().getForObject(getUrl("/v2/spaces/{space}/summary"), String.class, urlVars);
+			summary = JsonUtil.convertJsonToMap(resp);
+		} catch (CloudFoundryException e) {
+			logger.debug("Space summary not available, resolving applications individually. Caught:" + e, e);
+			return appSummaries;
+		}
+		List<Map<String, Object>> appList = (List<Map<String, Object>>) summary.get("apps");
+		if (appList != null) {
+			for (Map<String, Object> appSummary : appList) {
+				String guid = CloudUtil.parse(String.class, appSummary.get("guid"));
+				if (guid != null) {
+					appSummaries.put(UUID.fromString(guid), appSummary);
+				}
+			}
+		}
+		return appSummaries;
+	}
+
 	public CloudApplication getApplication(String appName) {
 		Map<String, Object> resource = findApplicationResource(appName, true);
 		if (resource == null) {
@@ -745,6 +1295,36 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		return cloudApp;
 	}
 
+	@SuppressWarnings("unchecked")
+	private CloudApplication mapCloudApplication(Map<String, Object> resource, Map<String, Object> appSummary) {
+		processApplicationResource(resource, false);
+		fillInEmbeddedResource(resource, "service_bindings");
+		int running = getRunningInstances(CloudApplication.AppState.valueOf(
+				CloudEntityResourceMapper.getEntityAttribute(resource, "state", String.class)), appSummary);
+		((Map<String, Object>) resource.get("entity")).put("running_instances", running);
+		CloudApplication cloudApp = resourceMapper.mapResource(resource, CloudApplication.class);
+		cloudApp.setUris(getSummaryList(appSummary, "urls"));
+		cloudApp.setServices(getSummaryList(appSummary, "service_names"));
+		return cloudApp;
+	}
+
+	private int getRunningInstances(CloudApplication.AppState appState, Map<String, Object> appSummary) {
+		if (appState != CloudApplication.AppState.STARTED) {
+			return 0;
+		}
+		return CloudUtil.parse(Integer.class, appSummary.get("running_instances"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<String> getSummaryList(Map<String, Object> appSummary, String key) {
+		List<String> values = new ArrayList<String>();
+		Object summaryValues = appSummary.get(key);
+		if (summaryValues instanceof List) {
+			values.addAll((List<String>) summaryValues);
+		}
+		return values;
+	}
+
 	private int getRunningInstances(UUID appId, CloudApplication.AppState appState) {
 		int running = 0;
 		ApplicationStats appStats = doGetApplicationStats(appId, appState);
@@ -806,6 +1386,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		String appResp = getRestTemplate().postForObject(getUrl("/v2/apps"), appRequest, String.class);
 		Map<String, Object> appEntity = JsonUtil.convertJsonToMap(appResp);
 		UUID newAppGuid = CloudEntityResourceMapper.getMeta(appEntity).getGuid();
+		appGuidCache.put(appName, newAppGuid);
 
 		if (serviceNames != null && serviceNames.size() > 0) {
 			updateApplicationServices(appName, serviceNames);
@@ -824,43 +1405,103 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 			appRequest.put("command", staging.getCommand());
 		}
 		if (staging.getStack() != null) {
-			appRequest.put("stack_guid", getStack(staging.getStack()).getMeta().getGuid());
+			appRequest.put("stack_guid", getStackGuid(staging.getStack()));
 		}
 		if (staging.getHealthCheckTimeout() != null) {
 			appRequest.put("health_check_timeout", staging.getHealthCheckTimeout());
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	private List<Map<String, Object>> getAllResources(String urlPath, Map<String, Object> urlVars) {
-		List<Map<String, Object>> allResources = new ArrayList<Map<String, Object>>();
-		String resp;
+		return getAllResources(urlPath, urlVars, JsonUtil.MAP_RESOURCE_READER);
+	}
+
+	private <T> List<T> getAllResources(String urlPath, Map<String, Object> urlVars,
+	                                    JsonUtil.ResourceReader<T> reader) {
+		List<T> allResources = new ArrayList<T>();
+		Map<String, Object> respMap = getResourcePage(urlPath, urlVars, reader);
+		addResources(respMap, allResources);
+		String nextUrl = (String) respMap.get("next_url");
+		if (nextUrl != null && nextUrl.length() > 0) {
+			List<String> pageUrls = getRemainingPageUrls(nextUrl, respMap.get("total_pages"));
+			if (pageUrls != null) {
+				addPagesOfResources(pageUrls, allResources, reader);
+			} else {
+				while (nextUrl != null && nextUrl.length() > 0) {
+					nextUrl = addPageOfResources(nextUrl, allResources, reader);
+				}
+			}
+		}
+		return allResources;
+	}
+
+	private <T> String addPageOfResources(String nextUrl, List<T> allResources, JsonUtil.ResourceReader<T> reader) {
+		Map<String, Object> respMap = getResourcePage(nextUrl, null, reader);
+		addResources(respMap, allResources);
+		return (String) respMap.get("next_url");
+	}
+
+	// binds listing pages straight from the response stream rather than buffering them in a String first
+	private <T> Map<String, Object> getResourcePage(String urlPath, Map<String, Object> urlVars,
+	                                                final JsonUtil.ResourceReader<T> reader) {
+		ResponseExtractor<Map<String, Object>> extractor = new ResponseExtractor<Map<String, Object>>() {
+			public Map<String, Object> extractData(ClientHttpResponse response) throws IOException {
+				return JsonUtil.readResourcePage(response.getBody(), reader);
+			}
+		};
 		if (urlVars != null) {
-			resp = getRestTemplate().getForObject(getUrl(urlPath), String.class, urlVars);
-		} else {
-			resp = getRestTemplate().getForObject(getUrl(urlPath), String.class);
+			return getRestTemplate().execute(getUrl(urlPath), HttpMethod.GET, RESOURCE_PAGE_REQUEST_CALLBACK,
+					extractor, urlVars);
 		}
-		Map<String, Object> respMap = JsonUtil.convertJsonToMap(resp);
-		List<Map<String, Object>> newResources = (List<Map<String, Object>>) respMap.get("resources");
-		if (newResources != null && newResources.size() > 0) {
-			allResources.addAll(newResources);
+		return getRestTemplate().execute(getUrl(urlPath), HttpMethod.GET, RESOURCE_PAGE_REQUEST_CALLBACK, extractor);
+	}
+
+	/**
+	 * Fetch the given pages concurrently, at most {@link #maxConcurrentRequests} at a time, adding their resources
+	 * in page order.
+	 */
+	private <T> void addPagesOfResources(List<String> pageUrls, List<T> allResources,
+	                                     final JsonUtil.ResourceReader<T> reader) {
+		List<Callable<List<T>>> pageRequests = new ArrayList<Callable<List<T>>>(pageUrls.size());
+		for (final String pageUrl : pageUrls) {
+			pageRequests.add(new Callable<List<T>>() {
+				public List<T> call() {
+					List<T> pageResources = new ArrayList<T>();
+					addPageOfResources(pageUrl, pageResources, reader);
+					return pageResources;
+				}
+			});
 		}
-		String nextUrl = (String) respMap.get("next_url");
-		while (nextUrl != null && nextUrl.length() > 0) {
-			nextUrl = addPageOfResources(nextUrl, allResources);
+		for (List<T> pageResources : taskExecutor.invokeAll(pageRequests, maxConcurrentRequests)) {
+			allResources.addAll(pageResources);
 		}
-		return allResources;
+	}
+
+	/**
+	 * Derive the URLs of all pages following the first one from the <code>next_url</code> and <code>total_pages</code>
+	 * of the first response, so that they can be requested without walking the <code>next_url</code> chain.
+	 *
+	 * @return the page URLs, or null if they can't be derived and the pages have to be walked one at a time
+	 */
+	protected static List<String> getRemainingPageUrls(String nextUrl, Object totalPagesValue) {
+		int totalPages = CloudUtil.parse(Integer.class, totalPagesValue);
+		Matcher matcher = PAGE_PARAMETER_PATTERN.matcher(nextUrl);
+		if (totalPages < 2 || !matcher.find() || !"2".equals(matcher.group(2))) {
+			return null;
+		}
+		List<String> pageUrls = new ArrayList<String>(totalPages - 1);
+		for (int page = 2; page <= totalPages; page++) {
+			pageUrls.add(nextUrl.substring(0, matcher.start(2)) + page + nextUrl.substring(matcher.end(2)));
+		}
+		return pageUrls;
 	}
 
 	@SuppressWarnings("unchecked")
-	private String addPageOfResources(String nextUrl, List<Map<String, Object>> allResources) {
-		String resp = getRestTemplate().getForObject(getUrl(nextUrl), String.class);
-		Map<String, Object> respMap = JsonUtil.convertJsonToMap(resp);
-		List<Map<String, Object>> newResources = (List<Map<String, Object>>) respMap.get("resources");
+	private <T> void addResources(Map<String, Object> respMap, List<T> allResources) {
+		List<T> newResources = (List<T>) respMap.get("resources");
 		if (newResources != null && newResources.size() > 0) {
 			allResources.addAll(newResources);
 		}
-		return (String) respMap.get("next_url");
 	}
 
 	private void addUris(List<String> uris, UUID appGuid) {
@@ -928,14 +1569,18 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	private UUID getDomainGuid(String domainName, boolean required) {
+		UUID domainGuid = domainGuidCache.get(domainName);
+		if (domainGuid != null) {
+			return domainGuid;
+		}
 		Map<String, Object> urlVars = new HashMap<String, Object>();
 		String urlPath = "/v2/domains?inline-relations-depth=1&q=name:{name}";
 		urlVars.put("name", domainName);
 		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
-		UUID domainGuid = null;
 		if (resourceList.size() > 0) {
 			Map<String, Object> resource = resourceList.get(0);
 			domainGuid = resourceMapper.getGuidOfResource(resource);
+			domainGuidCache.put(domainName, domainGuid);
 		}
 		if (domainGuid == null && required) {
 			throw new IllegalArgumentException("Domain '" + domainName + "' not found.");
@@ -999,22 +1644,42 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	public void uploadApplication(String appName, File file, UploadStatusCallback callback) throws IOException {
 		Assert.notNull(file, "File must not be null");
-		if (file.isDirectory()) {
-			ApplicationArchive archive = new DirectoryApplicationArchive(file);
-			uploadApplication(appName, archive, callback);
-		} else {
-			ZipFile zipFile = new ZipFile(file);
-			try {
-				ApplicationArchive archive = new ZipApplicationArchive(zipFile);
+		DigestCache cache = digestCache;
+		try {
+			if (file.isDirectory()) {
+				ApplicationArchive archive = new DirectoryApplicationArchive(file, cache);
 				uploadApplication(appName, archive, callback);
-			} finally {
-				zipFile.close();
+			} else {
+				ZipFile zipFile = new ZipFile(file);
+				try {
+					ApplicationArchive archive = new ZipApplicationArchive(zipFile, cache);
+					uploadApplication(appName, archive, callback);
+				} finally {
+					zipFile.close();
+				}
+			}
+		} finally {
+			if (cache != null) {
+				saveDigestCache(cache);
 			}
 		}
 	}
 
 	public void uploadApplication(String appName, ApplicationArchive archive, UploadStatusCallback callback)
 			throws IOException {
+		Future<Void> job = uploadApplicationAsync(appName, archive, callback);
+		try {
+			job.get();
+		} catch (InterruptedException e) {
+			job.cancel(false);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw BoundedTaskExecutor.unwrap(e.getCause());
+		}
+	}
+
+	public Future<Void> uploadApplicationAsync(String appName, ApplicationArchive archive,
+	                                           UploadStatusCallback callback) throws IOException {
 		Assert.notNull(appName, "AppName must not be null");
 		Assert.notNull(archive, "Archive must not be null");
 		UUID appId = getAppId(appName);
@@ -1022,41 +1687,115 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		if (callback == null) {
 			callback = UploadStatusCallback.NONE;
 		}
-		CloudResources knownRemoteResources = getKnownRemoteResources(archive);
-		callback.onCheckResources();
-		callback.onMatchedFileNames(knownRemoteResources.getFilenames());
-		UploadApplicationPayload payload = new UploadApplicationPayload(archive, knownRemoteResources);
-		callback.onProcessMatchedResources(payload.getTotalUncompressedSize());
-		HttpEntity<?> entity = generatePartialResourceRequest(payload, knownRemoteResources);
-		ResponseEntity<Map<String, Map<String, String>>> responseEntity =
-				getRestTemplate().exchange(getUrl("/v2/apps/{guid}/bits?async=true"), HttpMethod.PUT, entity,
-						new ParameterizedTypeReference<Map<String, Map<String, String>>>() {
-						}, appId);
-		processAsyncJob(responseEntity, callback);
-	}
-
-	private void processAsyncJob(ResponseEntity<Map<String, Map<String, String>>> jobCreationEntity, UploadStatusCallback callback) {
-		Map<String, String> jobEntity = jobCreationEntity.getBody().get("entity");
-		String jobStatus;
-		do {
-			jobStatus = jobEntity.get("status");
-			boolean unsubscribe = callback.onProgress(jobStatus);
-			if (unsubscribe) {
-				return;
-			} else {
-				try {
-					Thread.sleep(JOB_POLLING_PERIOD);
-				} catch (InterruptedException ex) {
-					return;
+		setContentBudget(archive, uploadContentBudget);
+		ResponseEntity<Map<String, Map<String, String>>> responseEntity;
+		try {
+			CloudResources knownRemoteResources = getKnownRemoteResources(archive);
+			callback.onCheckResources();
+			callback.onMatchedFileNames(knownRemoteResources.getFilenames());
+			UploadApplicationPayload payload = new UploadApplicationPayload(archive, knownRemoteResources);
+			payload.setPipelining(uploadQueueDepth, uploadBufferSize);
+			callback.onProcessMatchedResources(payload.getTotalUncompressedSize());
+			HttpEntity<MultiValueMap<String, ?>> entity = generatePartialResourceRequest(payload, knownRemoteResources);
+			responseEntity = putApplicationBits(appId, entity, uploadQueueDepth > 0);
+		} finally {
+			setContentBudget(archive, null);
+		}
+		return processAsyncJob(responseEntity, callback);
+	}
+
+	/**
+	 * Send the bits of an application. When streaming, the multipart body is written to the connection as the zip is
+	 * produced, with chunked transfer encoding, rather than buffered in memory and sent with its length.
+	 */
+	private ResponseEntity<Map<String, Map<String, String>>> putApplicationBits(UUID appId,
+			final HttpEntity<MultiValueMap<String, ?>> entity, boolean streaming) {
+		ParameterizedTypeReference<Map<String, Map<String, String>>> responseType =
+				new ParameterizedTypeReference<Map<String, Map<String, String>>>() {
+				};
+		CloudFoundryClientHttpRequestFactory cfRequestFactory =
+				getRestTemplate().getRequestFactory() instanceof CloudFoundryClientHttpRequestFactory ?
+						(CloudFoundryClientHttpRequestFactory) getRestTemplate().getRequestFactory() : null;
+		CloudFoundryFormHttpMessageConverter formConverter = null;
+		for (HttpMessageConverter<?> converter : getRestTemplate().getMessageConverters()) {
+			if (converter instanceof CloudFoundryFormHttpMessageConverter) {
+				formConverter = (CloudFoundryFormHttpMessageConverter) converter;
+			}
+		}
+		if (!streaming || cfRequestFactory == null || formConverter == null) {
+			return getRestTemplate().exchange(getUrl("/v2/apps/{guid}/bits?async=true"), HttpMethod.PUT, entity,
+					responseType, appId);
+		}
+
+		final CloudFoundryFormHttpMessageConverter multipartConverter = formConverter;
+		RequestCallback requestCallback = new RequestCallback() {
+			public void doWithRequest(ClientHttpRequest request) throws IOException {
+				request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+				request.getHeaders().putAll(entity.getHeaders());
+				final byte[] boundary = multipartConverter.generateMultipartBoundary();
+				request.getHeaders().setContentType(new MediaType(MediaType.MULTIPART_FORM_DATA,
+						Collections.singletonMap("boundary", new String(boundary, "US-ASCII"))));
+				if (request instanceof StreamingHttpComponentsRequest) {
+					((StreamingHttpComponentsRequest) request).setBody(new StreamingHttpComponentsRequest.Body() {
+						public void writeTo(final OutputStream outputStream) throws IOException {
+							multipartConverter.write(entity.getBody(), boundary, outputStream);
+						}
+					});
+				} else {
+					multipartConverter.write(entity.getBody(), boundary, request.getBody());
+				}
+			}
+		};
+		final HttpMessageConverterExtractor<Map<String, Map<String, String>>> bodyExtractor =
+				new HttpMessageConverterExtractor<Map<String, Map<String, String>>>(responseType.getType(),
+						getRestTemplate().getMessageConverters());
+		ResponseExtractor<ResponseEntity<Map<String, Map<String, String>>>> responseExtractor =
+				new ResponseExtractor<ResponseEntity<Map<String, Map<String, String>>>>() {
+					public ResponseEntity<Map<String, Map<String, String>>> extractData(ClientHttpResponse response)
+							throws IOException {
+						return new ResponseEntity<Map<String, Map<String, String>>>(bodyExtractor.extractData(response),
+								response.getHeaders(), response.getStatusCode());
+					}
+				};
+		cfRequestFactory.setStreamingForCurrentThread(true);
+		try {
+			return getRestTemplate().execute(getUrl("/v2/apps/{guid}/bits?async=true"), HttpMethod.PUT,
+					requestCallback, responseExtractor, appId);
+		} finally {
+			cfRequestFactory.setStreamingForCurrentThread(false);
+		}
+	}
+
+	/**
+	 * Let the entries of the archive keep the content read to fingerprint them within the budget, or release the
+	 * content they still hold when the budget is null.
+	 */
+	private static void setContentBudget(ApplicationArchive archive, ContentBudget contentBudget) {
+		for (ApplicationArchive.Entry entry : archive.getEntries()) {
+			if (entry instanceof AbstractApplicationArchiveEntry) {
+				AbstractApplicationArchiveEntry archiveEntry = (AbstractApplicationArchiveEntry) entry;
+				archiveEntry.setContentBudget(contentBudget);
+				if (contentBudget == null) {
+					archiveEntry.releaseContent();
 				}
 			}
-			String jobId = jobEntity.get("guid");
-			ResponseEntity<Map<String, Map<String, String>>> jobProgressEntity =
-					getRestTemplate().exchange(getUrl("/v2/jobs/{guid}"), HttpMethod.GET, HttpEntity.EMPTY,
-							new ParameterizedTypeReference<Map<String, Map<String, String>>>() {
-							}, jobId);
-			jobEntity = jobProgressEntity.getBody().get("entity");
-		} while (!jobStatus.equals("finished"));
+		}
+	}
+
+	private Future<Void> processAsyncJob(ResponseEntity<Map<String, Map<String, String>>> jobCreationEntity,
+	                                     UploadStatusCallback callback) {
+		AsyncJobPoller poller = new AsyncJobPoller(pollingScheduler, callback, jobPollingInitialDelay,
+				jobPollingMaxDelay) {
+			protected Map<String, String> getJobEntity(String jobId) {
+				ResponseEntity<Map<String, Map<String, String>>> jobProgressEntity =
+						getRestTemplate().exchange(getUrl("/v2/jobs/{guid}"), HttpMethod.GET, HttpEntity.EMPTY,
+								new ParameterizedTypeReference<Map<String, Map<String, String>>>() {
+								}, jobId);
+				return jobProgressEntity.getBody().get("entity");
+			}
+		};
+		poller.start(jobCreationEntity.getBody().get("entity"));
+		return poller;
 	}
 
 	private CloudResources getKnownRemoteResources(ApplicationArchive archive) throws IOException {
@@ -1137,6 +1876,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	public void deleteApplication(String appName) {
 		UUID appId = getAppId(appName);
+		appGuidCache.remove(appName);
 		doDeleteApplication(appId);
 	}
 
@@ -1168,6 +1908,79 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		getRestTemplate().put(getUrl("/v2/apps/{guid}"), appRequest, appId);
 	}
 
+	/**
+	 * Apply the given updates to applications of the current space, at most {@code maxConcurrency} at a time. The
+	 * applications are resolved with a single listing, and the failure of one update doesn't stop the others. Like
+	 * {@link #startApplication(String)} and {@link #stopApplication(String)}, a state change is not sent for an
+	 * application already in that state, which counts as a success.
+	 *
+	 * @param appRequests the body of the update request, keyed by application name
+	 * @param maxConcurrency the maximum number of update requests in flight
+	 * @return the outcome of the update of each application
+	 */
+	public BulkOperationResult updateApplications(Map<String, Map<String, Object>> appRequests, int maxConcurrency) {
+		Assert.notNull(appRequests, "Application requests must not be null");
+		Assert.isTrue(maxConcurrency > 0, "Concurrency must be greater than 0");
+		Map<String, Map<String, Object>> appResources = getApplicationResources();
+		List<String> appNames = new ArrayList<String>(appRequests.size());
+		List<Callable<RuntimeException>> updates = new ArrayList<Callable<RuntimeException>>(appRequests.size());
+		for (Map.Entry<String, Map<String, Object>> entry : appRequests.entrySet()) {
+			final String appName = entry.getKey();
+			final Map<String, Object> appRequest = entry.getValue();
+			final Map<String, Object> appResource = appResources.get(appName);
+			appNames.add(appName);
+			updates.add(new Callable<RuntimeException>() {
+				public RuntimeException call() {
+					if (appResource == null) {
+						return new CloudFoundryException(HttpStatus.NOT_FOUND, "Not Found",
+								"Application " + appName + " not found");
+					}
+					UUID appGuid = resourceMapper.getGuidOfResource(appResource);
+					Object state = appRequest.get("state");
+					if (state != null && appRequest.size() == 1 && state.toString().equals(
+							CloudEntityResourceMapper.getEntityAttribute(appResource, "state", String.class))) {
+						return null;
+					}
+					String urlPath = CloudApplication.AppState.STARTED.equals(appRequest.get("state")) ?
+							"/v2/apps/{guid}?stage_async=true" : "/v2/apps/{guid}";
+					try {
+						getRestTemplate().put(getUrl(urlPath), appRequest, appGuid);
+						return null;
+					} catch (RuntimeException e) {
+						return e;
+					}
+				}
+			});
+		}
+		List<RuntimeException> outcomes = taskExecutor.invokeAll(updates, maxConcurrency);
+		List<String> succeeded = new ArrayList<String>();
+		Map<String, RuntimeException> failures = new LinkedHashMap<String, RuntimeException>();
+		for (int i = 0; i < appNames.size(); i++) {
+			if (outcomes.get(i) == null) {
+				succeeded.add(appNames.get(i));
+			} else {
+				failures.put(appNames.get(i), outcomes.get(i));
+			}
+		}
+		return new BulkOperationResult(succeeded, failures);
+	}
+
+	/**
+	 * Get all applications of the current space with a single listing, without their relations, keyed by application
+	 * name.
+	 */
+	private Map<String, Map<String, Object>> getApplicationResources() {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = getApplicationsUrlPath(urlVars, 0);
+		Map<String, Map<String, Object>> appResources = new HashMap<String, Map<String, Object>>();
+		for (Map<String, Object> resource : getAllResources(urlPath, urlVars)) {
+			String appName = CloudEntityResourceMapper.getEntityAttribute(resource, "name", String.class);
+			appResources.put(appName, resource);
+			appGuidCache.put(appName, resourceMapper.getGuidOfResource(resource));
+		}
+		return appResources;
+	}
+
 	public void updateApplicationServices(String appName, List<String> services) {
 		CloudApplication app = getApplication(appName);
 		List<UUID> addServices = new ArrayList<UUID>();
@@ -1175,9 +1988,9 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		// services to add
 		for (String serviceName : services) {
 			if (!app.getServices().contains(serviceName)) {
-				CloudService cloudService = getService(serviceName);
-				if (cloudService != null) {
-					addServices.add(cloudService.getMeta().getGuid());
+				UUID serviceGuid = getServiceGuid(serviceName);
+				if (serviceGuid != null) {
+					addServices.add(serviceGuid);
 				} else {
 					throw new CloudFoundryException(HttpStatus.NOT_FOUND, "Service with name " + serviceName +
 							" not found in current space " + sessionSpace.getName());
@@ -1187,9 +2000,9 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		// services to delete
 		for (String serviceName : app.getServices()) {
 			if (!services.contains(serviceName)) {
-				CloudService cloudService = getService(serviceName);
-				if (cloudService != null) {
-					deleteServices.add(cloudService.getMeta().getGuid());
+				UUID serviceGuid = getServiceGuid(serviceName);
+				if (serviceGuid != null) {
+					deleteServices.add(serviceGuid);
 				}
 			}
 		}
@@ -1251,15 +2064,23 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	public void bindService(String appName, String serviceName) {
-		CloudService cloudService = getService(serviceName);
+		UUID serviceGuid = getExistingServiceGuid(serviceName);
 		UUID appId = getAppId(appName);
-		doBindService(appId, cloudService.getMeta().getGuid());
+		doBindService(appId, serviceGuid);
 	}
 
 	public void unbindService(String appName, String serviceName) {
-		CloudService cloudService = getService(serviceName);
+		UUID serviceGuid = getExistingServiceGuid(serviceName);
 		UUID appId = getAppId(appName);
-		doUnbindService(appId, cloudService.getMeta().getGuid());
+		doUnbindService(appId, serviceGuid);
+	}
+
+	private UUID getExistingServiceGuid(String serviceName) {
+		UUID serviceGuid = getServiceGuid(serviceName);
+		if (serviceGuid == null) {
+			throw new CloudFoundryException(HttpStatus.NOT_FOUND, "Service with name " + serviceName + " not found");
+		}
+		return serviceGuid;
 	}
 
 	public InstancesInfo getApplicationInstances(String appName) {
@@ -1321,7 +2142,9 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		UUID appId = getAppId(appName);
 		HashMap<String, Object> appRequest = new HashMap<String, Object>();
 		appRequest.put("name", newName);
+		appGuidCache.remove(appName);
 		getRestTemplate().put(getUrl("/v2/apps/{guid}"), appRequest, appId);
+		appGuidCache.put(newName, appId);
 	}
 
 	public List<CloudStack> getStacks() {
@@ -1335,15 +2158,29 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	public CloudStack getStack(String name) {
+		CloudStack stack = null;
 		String urlPath = "/v2/stacks?q={q}";
 		Map<String, Object> urlVars = new HashMap<String, Object>();
 		urlVars.put("q", "name:" + name);
 		List<Map<String, Object>> resources = getAllResources(urlPath, urlVars);
 		if (resources.size() > 0) {
 			Map<String, Object> resource = resources.get(0);
-			return resourceMapper.mapResource(resource, CloudStack.class);
+			stack = resourceMapper.mapResource(resource, CloudStack.class);
+			stackGuidCache.put(name, stack.getMeta().getGuid());
 		}
-		return null;
+		return stack;
+	}
+
+	private UUID getStackGuid(String name) {
+		UUID guid = stackGuidCache.get(name);
+		if (guid == null) {
+			CloudStack stack = getStack(name);
+			if (stack == null) {
+				throw new CloudFoundryException(HttpStatus.NOT_FOUND, "Stack with name " + name + " not found");
+			}
+			guid = stack.getMeta().getGuid();
+		}
+		return guid;
 	}
 
 	public List<CloudDomain> getDomainsForOrg() {
@@ -1376,7 +2213,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		assertSpaceProvided("add domain");
 		UUID domainGuid = getDomainGuid(domainName, false);
 		if (domainGuid == null) {
-			doCreateDomain(domainName);
+			domainGuidCache.put(domainName, doCreateDomain(domainName));
 		}
 	}
 
@@ -1388,6 +2225,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 			throw new IllegalStateException("Unable to remove domain that is in use --" +
 					" it has " + routes.size() + " routes.");
 		}
+		domainGuidCache.remove(domainName);
 		doDeleteDomain(domainGuid);
 	}
 
@@ -1403,6 +2241,17 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		return doGetRoutes(domainGuid);
 	}
 
+	public Iterator<CloudRoute> iterateRoutes(String domainName) {
+		assertSpaceProvided("get routes for domain");
+		final UUID domainGuid = getDomainGuid(domainName, true);
+		return new PagedResourceIterator<Map<String, Object>, CloudRoute>("/v2/routes?inline-relations-depth=1", null,
+				JsonUtil.MAP_RESOURCE_READER) {
+			protected List<CloudRoute> mapPage(List<Map<String, Object>> resources) {
+				return mapCloudRoutes(resources, domainGuid);
+			}
+		};
+	}
+
 	@Override
 	public void addRoute(String host, String domainName) {
 		assertSpaceProvided("add route for domain");
@@ -1492,6 +2341,10 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 //		}
 		urlPath = urlPath + "/routes?inline-relations-depth=1";
 		List<Map<String, Object>> allRoutes = getAllResources(urlPath, urlVars);
+		return mapCloudRoutes(allRoutes, domainGuid);
+	}
+
+	private List<CloudRoute> mapCloudRoutes(List<Map<String, Object>> allRoutes, UUID domainGuid) {
 		List<CloudRoute> routes = new ArrayList<CloudRoute>();
 		for (Map<String, Object> route : allRoutes) {
 //			TODO: move space_guid to path once implemented (see above):
@@ -1582,8 +2435,11 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	@SuppressWarnings("unchecked")
 	private UUID getAppId(String appName) {
+		UUID guid = appGuidCache.get(appName);
+		if (guid != null) {
+			return guid;
+		}
 		Map<String, Object> resource = findApplicationResource(appName, false);
-		UUID guid = null;
 		if (resource != null) {
 			Map<String, Object> appMeta = (Map<String, Object>) resource.get("metadata");
 			guid = UUID.fromString(String.valueOf(appMeta.get("guid")));
@@ -1601,7 +2457,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 			}
 		};
 
-		String endpoint = getInfo().getLoggregatorEndpoint();
+		String endpoint = CloudUtil.parse(String.class, getInfoV2Map().get("logging_endpoint"));
 		String mode = recent ? "dump" : "tail";
 		UUID appId = getAppId(appName);
 		return loggregatorClient.connectToLoggregator(endpoint, mode, appId, listener, configurator);
@@ -1628,7 +2484,9 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 		List<Map<String, Object>> allResources = getAllResources(urlPath, urlVars);
 		if (!allResources.isEmpty()) {
-			return processApplicationResource(allResources.get(0), fetchServiceInfo);
+			Map<String, Object> resource = allResources.get(0);
+			appGuidCache.put(appName, resourceMapper.getGuidOfResource(resource));
+			return processApplicationResource(resource, fetchServiceInfo);
 		}
 		return null;
 	}
@@ -1641,6 +2499,47 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		return resource;
 	}
 
+	@SuppressWarnings("unchecked")
+	private List<String> findApplicationServices(Map<String, Object> resource) {
+		processApplicationResource(resource, true);
+		List<Map<String, Object>> serviceBindings =
+				CloudEntityResourceMapper.getEntityAttribute(resource, "service_bindings", List.class);
+		List<String> services = new ArrayList<String>();
+		if (serviceBindings != null) {
+			for (Map<String, Object> binding : serviceBindings) {
+				Map<String, Object> service =
+						CloudEntityResourceMapper.getEntityAttribute(binding, "service_instance", Map.class);
+				String serviceName = resourceMapper.getNameOfResource(service);
+				if (serviceName != null) {
+					services.add(serviceName);
+				}
+			}
+		}
+		return services;
+	}
+
+	/**
+	 * Copies the maps and lists of a resource, leaving the values they hold shared.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T copyResource(T resource) {
+		if (resource instanceof Map) {
+			Map<String, Object> copy = new LinkedHashMap<String, Object>();
+			for (Map.Entry<String, Object> entry : ((Map<String, Object>) resource).entrySet()) {
+				copy.put(entry.getKey(), copyResource(entry.getValue()));
+			}
+			return (T) copy;
+		}
+		if (resource instanceof List) {
+			List<Object> copy = new ArrayList<Object>();
+			for (Object element : (List<Object>) resource) {
+				copy.add(copyResource(element));
+			}
+			return (T) copy;
+		}
+		return resource;
+	}
+
 	private List<String> findApplicationUris(UUID appGuid) {
 		String urlPath = "/v2/apps/{app}/routes?inline-relations-depth=1";
 		Map<String, Object> urlVars = new HashMap<String, Object>();
@@ -1659,6 +2558,16 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		return uris;
 	}
 
+	private Map<String, Object> getInfoV2Map() {
+		Map<String, Object> infoV2Map = infoCache.get(cloudControllerUrl);
+		if (infoV2Map == null) {
+			String infoV2Json = getRestTemplate().getForObject(getUrl("/v2/info"), String.class);
+			infoV2Map = JsonUtil.convertJsonToMap(infoV2Json);
+			infoCache.put(cloudControllerUrl, infoV2Map);
+		}
+		return infoV2Map;
+	}
+
 	@SuppressWarnings("restriction")
 	private Map<String, Object> getUserInfo(String user) {
 //		String userJson = getRestTemplate().getForObject(getUrl("/v2/users/{guid}"), String.class, user);
@@ -1726,6 +2635,9 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	public static class CloudFoundryFormHttpMessageConverter extends FormHttpMessageConverter {
+
+		private final ThreadLocal<byte[]> boundary = new ThreadLocal<byte[]>();
+
 		@Override
 		protected String getFilename(Object part) {
 			if (part instanceof UploadApplicationPayload) {
@@ -1733,6 +2645,59 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 			}
 			return super.getFilename(part);
 		}
+
+		@Override
+		protected byte[] generateMultipartBoundary() {
+			byte[] boundary = this.boundary.get();
+			return (boundary != null ? boundary : super.generateMultipartBoundary());
+		}
+
+		/**
+		 * Write multipart data with a boundary chosen beforehand, so that the content type can be sent before the
+		 * data is written.
+		 */
+		void write(MultiValueMap<String, ?> parts, byte[] boundary, final OutputStream outputStream)
+				throws IOException {
+			this.boundary.set(boundary);
+			try {
+				write(parts, MediaType.MULTIPART_FORM_DATA, new HttpOutputMessage() {
+					private final HttpHeaders headers = new HttpHeaders();
+
+					public HttpHeaders getHeaders() {
+						return headers;
+					}
+
+					public OutputStream getBody() {
+						return outputStream;
+					}
+				});
+			} finally {
+				this.boundary.remove();
+			}
+		}
+	}
+
+	/**
+	 * Asks for the content as stored rather than gzip or deflate encoded, optionally a range of it. A range of an
+	 * encoded response would address the encoded bytes, and offsets into a file are counted in its own bytes.
+	 */
+	private static class IdentityEncodingRequestCallback implements RequestCallback {
+
+		private final String range;
+
+		/**
+		 * @param range the value of the Range header, or null to ask for the whole content
+		 */
+		IdentityEncodingRequestCallback(String range) {
+			this.range = range;
+		}
+
+		public void doWithRequest(ClientHttpRequest request) throws IOException {
+			request.getHeaders().set("Accept-Encoding", "identity");
+			if (range != null) {
+				request.getHeaders().set("Range", range);
+			}
+		}
 	}
 
 	private static class ResponseExtractorWrapper implements ResponseExtractor {
@@ -1750,14 +2715,248 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	}
 
+	/**
+	 * Downloads one byte range of a file into its place in the destination file, resuming from the last byte written
+	 * when an attempt fails with an I/O error or a server error.
+	 */
+	private class FileSegmentDownload implements Callable<Object> {
+
+		private final String urlPath;
+
+		private final Object app;
+
+		private final String instance;
+
+		private final String filePath;
+
+		private final FileChannelOutputStream out;
+
+		private final long last;
+
+		FileSegmentDownload(String urlPath, Object app, String instance, String filePath, FileChannel channel,
+							long first, long last) {
+			this.urlPath = urlPath;
+			this.app = app;
+			this.instance = instance;
+			this.filePath = filePath;
+			this.out = new FileChannelOutputStream(channel, first);
+			this.last = last;
+		}
+
+		public Object call() {
+			for (int attempt = 1; ; attempt++) {
+				long first = out.getPosition();
+				try {
+					doGetFileByRange(urlPath, app, instance, filePath, first, last, "bytes=" + first + "-" + last, out);
+					return null;
+				} catch (ResourceAccessException e) {
+					if (attempt >= FILE_SEGMENT_ATTEMPTS) {
+						throw e;
+					}
+					logger.debug("Retrying download of bytes " + out.getPosition() + "-" + last + " of " + filePath, e);
+				} catch (HttpServerErrorException e) {
+					if (attempt >= FILE_SEGMENT_ATTEMPTS) {
+						throw e;
+					}
+					logger.debug("Retrying download of bytes " + out.getPosition() + "-" + last + " of " + filePath, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes to a file channel at an explicit position, so that several streams can fill the same file concurrently.
+	 */
+	private static class FileChannelOutputStream extends OutputStream {
+
+		private final FileChannel channel;
+
+		private long position;
+
+		FileChannelOutputStream(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+
+		long getPosition() {
+			return position;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+		}
+	}
+
+	/**
+	 * Writes the requested range of a file to a stream as it is read. When the server ignored the Range header and
+	 * sent the whole file, the range is cut out of the content on the fly, buffering at most the requested tail.
+	 */
+	private static class FileContentExtractor implements ResponseExtractor<Object> {
+
+		static final Charset DEFAULT_CHARSET = Charset.forName("ISO-8859-1");
+
+		private static final int BUFFER_SIZE = 8192;
+
+		private final OutputStream out;
+
+		private final long start;
+
+		private final long end;
+
+		private boolean partialContent;
+
+		private Charset charset = DEFAULT_CHARSET;
+
+		FileContentExtractor(OutputStream out, long start, long end) {
+			this.out = out;
+			this.start = start;
+			this.end = end;
+		}
+
+		public Object extractData(ClientHttpResponse response) throws IOException {
+			partialContent = response.getStatusCode().equals(HttpStatus.PARTIAL_CONTENT);
+			MediaType contentType = response.getHeaders().getContentType();
+			if (contentType != null && contentType.getCharSet() != null) {
+				charset = contentType.getCharSet();
+			}
+			InputStream in = response.getBody();
+			if (partialContent) {
+				copyRange(in, 0, -1);
+			} else if (start == -1) {
+				copyTail(in, (int) end);
+			} else {
+				copyRange(in, start, end);
+			}
+			out.flush();
+			return null;
+		}
+
+		boolean isPartialContent() {
+			return partialContent;
+		}
+
+		Charset getCharset() {
+			return charset;
+		}
+
+		private void copyRange(InputStream in, long first, long last) throws IOException {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			long position = 0;
+			int count;
+			while ((last == -1 || position <= last) && (count = in.read(buffer)) != -1) {
+				long from = Math.max(first - position, 0);
+				long to = last == -1 ? count : Math.min(last + 1 - position, count);
+				if (from < to) {
+					out.write(buffer, (int) from, (int) (to - from));
+				}
+				position += count;
+			}
+			if (position > 0 && position <= first) {
+				throw new CloudFoundryException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+						"The starting position " + first + " is past the end of the file content.");
+			}
+		}
+
+		private void copyTail(InputStream in, int length) throws IOException {
+			if (length == 0) {
+				return;
+			}
+			byte[] buffer = new byte[BUFFER_SIZE];
+			byte[] tail = new byte[length];
+			long position = 0;
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				for (int i = Math.max(count - length, 0); i < count; i++) {
+					tail[(int) ((position + i) % length)] = buffer[i];
+				}
+				position += count;
+			}
+			int size = (int) Math.min(position, length);
+			int first = (int) ((position - size) % length);
+			int firstChunk = Math.min(size, length - first);
+			out.write(tail, first, firstChunk);
+			out.write(tail, 0, size - firstChunk);
+		}
+	}
+
+	/**
+	 * Splits staging log responses into lines as they are read, keeping track of the offset of the end of the last
+	 * complete line so that a new connection can resume from there. The unterminated end of the last response is
+	 * kept until the next response, which starts again from that offset, or until it is flushed.
+	 */
+	private static class StagingLogReader implements ResponseExtractor<Void> {
+
+		private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+		private final StagingLogListener listener;
+
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		private long offset;
+
+		StagingLogReader(StagingLogListener listener) {
+			this.listener = listener;
+		}
+
+		public Void extractData(ClientHttpResponse response) throws IOException {
+			// the response starts at the offset, sending the unterminated end of the previous one again
+			line.reset();
+			InputStream in = response.getBody();
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				int lineStart = 0;
+				for (int i = 0; i < count; i++) {
+					if (buffer[i] == '\n') {
+						line.write(buffer, lineStart, i - lineStart);
+						offset += line.size() + 1;
+						emitLine();
+						lineStart = i + 1;
+					}
+				}
+				line.write(buffer, lineStart, count - lineStart);
+			}
+			return null;
+		}
+
+		long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Emit the last line of the log if it is not terminated.
+		 */
+		void flush() {
+			if (line.size() > 0) {
+				emitLine();
+			}
+		}
+
+		private void emitLine() {
+			String text = new String(line.toByteArray(), UTF_8);
+			line.reset();
+			if (text.endsWith("\r")) {
+				text = text.substring(0, text.length() - 1);
+			}
+			listener.onLine(text);
+		}
+	}
+
 	private class CloudFoundryClientHttpRequestFactory implements ClientHttpRequestFactory {
 
 		private ClientHttpRequestFactory delegate;
-		private Integer defaultSocketTimeout = 0;
 
 		public CloudFoundryClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
 			this.delegate = delegate;
-			captureDefaultReadTimeout();
 		}
 
 		public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
@@ -1768,44 +2967,204 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 				request.getHeaders().add(AUTHORIZATION_HEADER_KEY, authorizationHeader);
 			}
 
-			if (cloudCredentials != null && cloudCredentials.getProxyUser() != null) {
-				request.getHeaders().add(PROXY_USER_HEADER_KEY, cloudCredentials.getProxyUser());
+			CloudCredentials credentials = cloudCredentials;
+			if (credentials != null && credentials.getProxyUser() != null) {
+				request.getHeaders().add(PROXY_USER_HEADER_KEY, credentials.getProxyUser());
 			}
 
 			return request;
 		}
 
-		private void captureDefaultReadTimeout() {
-			if (delegate instanceof HttpComponentsClientHttpRequestFactory) {
-				HttpComponentsClientHttpRequestFactory httpRequestFactory =
-						(HttpComponentsClientHttpRequestFactory) delegate;
-				defaultSocketTimeout = (Integer) httpRequestFactory
-						.getHttpClient().getParams()
-						.getParameter("http.socket.timeout");
-				if (defaultSocketTimeout == null) {
-					try {
-						defaultSocketTimeout = new Socket().getSoTimeout();
-					} catch (SocketException e) {
-						defaultSocketTimeout = 0;
-					}
+		/**
+		 * Change the read timeout of the requests made by the current thread only. Has no effect unless the
+		 * RestTemplate was created by {@link org.cloudfoundry.client.lib.util.RestUtil}.
+		 */
+		public void setReadTimeoutForCurrentThread(int timeout) {
+			if (delegate instanceof TimeoutAwareHttpRequestFactory) {
+				((TimeoutAwareHttpRequestFactory) delegate).setReadTimeoutForCurrentThread(timeout);
+			}
+		}
+
+		public void resetReadTimeoutForCurrentThread() {
+			if (delegate instanceof TimeoutAwareHttpRequestFactory) {
+				((TimeoutAwareHttpRequestFactory) delegate).resetReadTimeoutForCurrentThread();
+			}
+		}
+
+		/**
+		 * Let the requests made by the current thread stream their body, see
+		 * {@link TimeoutAwareHttpRequestFactory#setStreamingForCurrentThread(boolean)}.
+		 */
+		public void setStreamingForCurrentThread(boolean streaming) {
+			if (delegate instanceof TimeoutAwareHttpRequestFactory) {
+				((TimeoutAwareHttpRequestFactory) delegate).setStreamingForCurrentThread(streaming);
+			}
+		}
+	}
+
+	/**
+	 * Iterates over the entities of a listing, requesting a page only when the entities of the previous one have been
+	 * consumed. Abandoning the iterator stops the listing.
+	 */
+	private abstract class PagedResourceIterator<R, T> implements Iterator<T> {
+
+		private String nextUrl;
+
+		private Map<String, Object> urlVars;
+
+		private final JsonUtil.ResourceReader<R> reader;
+
+		private Iterator<T> page = Collections.<T>emptyList().iterator();
+
+		PagedResourceIterator(String urlPath, Map<String, Object> urlVars, JsonUtil.ResourceReader<R> reader) {
+			this.nextUrl = urlPath;
+			this.urlVars = urlVars;
+			this.reader = reader;
+		}
+
+		protected abstract List<T> mapPage(List<R> resources);
+
+		public boolean hasNext() {
+			while (!page.hasNext() && nextUrl != null) {
+				Map<String, Object> respMap = getResourcePage(nextUrl, urlVars, reader);
+				// the next_url of a page is already expanded
+				urlVars = null;
+				nextUrl = (String) respMap.get("next_url");
+				if (nextUrl != null && nextUrl.length() == 0) {
+					nextUrl = null;
 				}
+				List<R> resources = new ArrayList<R>();
+				addResources(respMap, resources);
+				page = mapPage(resources).iterator();
+			}
+			return page.hasNext();
+		}
+
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
 			}
+			return page.next();
 		}
 
-		public void increaseReadTimeoutForStreamedTailedLogs(int timeout) {
-			// May temporary increase read timeout on other unrelated concurrent
-			// threads, but per-request read timeout don't seem easily
-			// accessible
-			if (delegate instanceof HttpComponentsClientHttpRequestFactory) {
-				HttpComponentsClientHttpRequestFactory httpRequestFactory =
-						(HttpComponentsClientHttpRequestFactory) delegate;
+		public void remove() {
+			throw new UnsupportedOperationException("Listings are read-only");
+		}
+	}
 
-				if (timeout > 0) {
-					httpRequestFactory.setReadTimeout(timeout);
-				} else {
-					httpRequestFactory
-							.setReadTimeout(defaultSocketTimeout);
+	/**
+	 * Application whose running instances, URIs and services are retrieved on first access, unless they were set or
+	 * loaded beforehand. Values are retrieved without holding the application's lock and only published under it, so
+	 * a slow request does not block other threads reading or setting the application.
+	 */
+	private class LazyCloudApplication extends CloudApplication {
+
+		private final Map<String, Object> resource;
+
+		private boolean runningInstancesLoaded;
+		private boolean urisLoaded;
+		private boolean servicesLoaded;
+
+		LazyCloudApplication(CloudApplication app, Map<String, Object> resource) {
+			super(app.getMeta(), app.getName());
+			this.resource = resource;
+			super.setStaging(app.getStaging());
+			super.setInstances(app.getInstances());
+			super.setMemory(app.getMemory());
+			super.setDiskQuota(app.getDiskQuota());
+			super.setState(app.getState());
+			super.setDebug(app.getDebug());
+			super.setEnv(app.getEnv());
+		}
+
+		@Override
+		public int getRunningInstances() {
+			CloudApplication.AppState state;
+			synchronized (this) {
+				if (runningInstancesLoaded) {
+					return super.getRunningInstances();
+				}
+				state = getState();
+			}
+			int runningInstances = CloudControllerClientImpl.this.getRunningInstances(getMeta().getGuid(), state);
+			synchronized (this) {
+				if (!runningInstancesLoaded) {
+					setRunningInstances(runningInstances);
+				}
+				return super.getRunningInstances();
+			}
+		}
+
+		@Override
+		public synchronized void setRunningInstances(int runningInstances) {
+			super.setRunningInstances(runningInstances);
+			runningInstancesLoaded = true;
+		}
+
+		@Override
+		public List<String> getUris() {
+			synchronized (this) {
+				if (urisLoaded) {
+					return super.getUris();
+				}
+			}
+			List<String> uris = findApplicationUris(getMeta().getGuid());
+			synchronized (this) {
+				if (!urisLoaded) {
+					setUris(uris);
+				}
+				return super.getUris();
+			}
+		}
+
+		@Override
+		public synchronized void setUris(List<String> uris) {
+			super.setUris(uris);
+			urisLoaded = true;
+		}
+
+		@Override
+		public List<String> getServices() {
+			synchronized (this) {
+				if (servicesLoaded) {
+					return super.getServices();
+				}
+			}
+			// looking the services up fills in the resource, so concurrent lookups each work on their own copy
+			List<String> services = findApplicationServices(copyResource(resource));
+			synchronized (this) {
+				if (!servicesLoaded) {
+					setServices(services);
 				}
+				return super.getServices();
+			}
+		}
+
+		@Override
+		public synchronized void setServices(List<String> services) {
+			super.setServices(services);
+			servicesLoaded = true;
+		}
+
+		synchronized boolean isLoaded() {
+			return runningInstancesLoaded && urisLoaded && servicesLoaded;
+		}
+
+		void load() {
+			getRunningInstances();
+			getUris();
+			getServices();
+		}
+
+		synchronized void load(Map<String, Object> appSummary) {
+			if (!runningInstancesLoaded) {
+				setRunningInstances(CloudControllerClientImpl.this.getRunningInstances(getState(), appSummary));
+			}
+			if (!urisLoaded) {
+				setUris(getSummaryList(appSummary, "urls"));
+			}
+			if (!servicesLoaded) {
+				setServices(getSummaryList(appSummary, "service_names"));
 			}
 		}
 	}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.cloudfoundry.client.lib.FileContentListener;
+import org.cloudfoundry.client.lib.StreamingLogToken;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Follows a file of an application instance, like {@code tail -f}, reading only what was appended since the last
+ * read and passing it to a {@link FileContentListener}. The file is read again quickly after new content, and with an
+ * exponentially increasing delay up to a maximum while it is idle. The scheduler only times the reads, which are made
+ * on a separate executor so that a slow file doesn't hold up other pollers.
+ *
+ * A file that becomes shorter than the offset reached, or whose last bytes received before the offset have changed,
+ * is reported as truncated and followed again from its start. The bytes before the offset are read again with the
+ * new content, so that a file rotated and grown past the offset between two reads isn't taken for appended content.
+ * A missing file is treated as idle, as it may be in the middle of a rotation.
+ */
+abstract class FileFollower implements StreamingLogToken, Runnable {
+
+	/**
+	 * The number of bytes before the offset that are read again to check that the file is still the same.
+	 */
+	static final int OVERLAP = 64;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Executor readExecutor;
+
+	private final FileContentListener listener;
+
+	private final long initialDelay;
+
+	private final long maxDelay;
+
+	private long delay;
+
+	private long offset;
+
+	// the last bytes received, ending at the offset
+	private byte[] tail = new byte[0];
+
+	private volatile boolean cancelled;
+
+	private volatile ScheduledFuture<?> nextPoll;
+
+	FileFollower(ScheduledExecutorService scheduler, Executor readExecutor, FileContentListener listener, long offset,
+				 long initialDelay, long maxDelay) {
+		this.scheduler = scheduler;
+		this.readExecutor = readExecutor;
+		this.listener = listener;
+		this.offset = offset;
+		this.initialDelay = initialDelay;
+		this.delay = initialDelay;
+		this.maxDelay = Math.max(initialDelay, maxDelay);
+	}
+
+	/**
+	 * Get the length of the file.
+	 *
+	 * @return the length, or -1 if it can't be known without reading the file
+	 */
+	protected abstract long getLength();
+
+	/**
+	 * Read a range of the file.
+	 *
+	 * @param start the position of the first byte to read
+	 * @param end the position after the last byte to read, or -1 to read the whole file from a start of 0
+	 * @return the content of the range
+	 */
+	protected abstract byte[] read(long start, long end);
+
+	void start() {
+		schedule(0);
+	}
+
+	public void run() {
+		if (cancelled) {
+			return;
+		}
+		long nextDelay;
+		try {
+			nextDelay = poll();
+		} catch (Throwable t) {
+			fail(t);
+			return;
+		}
+		schedule(nextDelay);
+	}
+
+	/**
+	 * Read the file once, passing what changed to the listener.
+	 *
+	 * @return the delay before the next read
+	 */
+	long poll() {
+		try {
+			if (readAppended()) {
+				delay = initialDelay;
+			} else {
+				delay = Math.min(delay * 2, maxDelay);
+			}
+		} catch (CloudFoundryException e) {
+			if (!e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
+				throw e;
+			}
+			delay = Math.min(delay * 2, maxDelay);
+		}
+		return delay;
+	}
+
+	public void cancel() {
+		cancelled = true;
+		ScheduledFuture<?> poll = nextPoll;
+		if (poll != null) {
+			poll.cancel(false);
+		}
+	}
+
+	/**
+	 * @return <tt>true</tt> if there was new content or the file was truncated
+	 */
+	private boolean readAppended() {
+		long length = getLength();
+		if (length >= 0 && length == offset) {
+			return false;
+		}
+		if (length >= 0 && length < offset) {
+			truncated();
+			return true;
+		}
+		long start = Math.max(offset - OVERLAP, 0);
+		byte[] data;
+		if (length < 0) {
+			byte[] file = read(0, -1);
+			data = (file.length < start ? new byte[0] : Arrays.copyOfRange(file, (int) start, file.length));
+		} else {
+			data = read(start, length);
+		}
+		int overlap = (int) (offset - start);
+		if (data.length < overlap || !matchesTail(data, overlap)) {
+			truncated();
+			return true;
+		}
+		if (data.length == overlap) {
+			return false;
+		}
+		listener.onContent(Arrays.copyOfRange(data, overlap, data.length), offset);
+		offset += data.length - overlap;
+		tail = Arrays.copyOfRange(data, Math.max(data.length - OVERLAP, 0), data.length);
+		return true;
+	}
+
+	private boolean matchesTail(byte[] data, int overlap) {
+		// the tail is unknown when following started past the beginning of the file
+		int count = Math.min(tail.length, overlap);
+		for (int i = 1; i <= count; i++) {
+			if (data[overlap - i] != tail[tail.length - i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void truncated() {
+		offset = 0;
+		tail = new byte[0];
+		listener.onTruncated();
+	}
+
+	private void schedule(long delay) {
+		if (cancelled) {
+			return;
+		}
+		nextPoll = scheduler.schedule(new Runnable() {
+			public void run() {
+				if (!cancelled) {
+					readExecutor.execute(FileFollower.this);
+				}
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void fail(Throwable t) {
+		cancelled = true;
+		listener.onError(t);
+	}
+}
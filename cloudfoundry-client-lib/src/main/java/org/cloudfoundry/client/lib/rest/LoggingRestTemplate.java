@@ -16,6 +16,7 @@
 
 package org.cloudfoundry.client.lib.rest;
 
+import org.cloudfoundry.client.lib.CompressionMetrics;
 import org.cloudfoundry.client.lib.RestLogCallback;
 import org.cloudfoundry.client.lib.RestLogEntry;
 import org.springframework.http.HttpMethod;
@@ -42,6 +43,12 @@ public class LoggingRestTemplate extends RestTemplate {
 
 	private Set<RestLogCallback> listeners = new LinkedHashSet<RestLogCallback>();
 
+	private final CompressionMetrics compressionMetrics = new CompressionMetrics();
+
+	public CompressionMetrics getCompressionMetrics() {
+		return compressionMetrics;
+	}
+
 	@Override
 	protected <T> T doExecute(URI url, HttpMethod method, RequestCallback requestCallback, final ResponseExtractor<T> responseExtractor) throws RestClientException {
 		final String[] status = new String[1];
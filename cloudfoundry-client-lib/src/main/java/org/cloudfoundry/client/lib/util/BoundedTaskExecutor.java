@@ -0,0 +1,206 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.client.lib.CloudOperationException;
+
+/**
+ * Runs groups of tasks on a shared pool of daemon threads, bounding the number of tasks of a group that are in
+ * flight at the same time.
+ *
+ * The underlying pool is unbounded and idle threads expire, so nested calls (a task that itself fans out) can never
+ * starve each other; the concurrency limit is applied per call to {@link #invokeAll(List, int)}.
+ */
+public class BoundedTaskExecutor {
+
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	private final ThreadPoolExecutor executor;
+
+	public BoundedTaskExecutor(String threadNamePrefix) {
+		this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), new DaemonThreadFactory(threadNamePrefix));
+	}
+
+	/**
+	 * Execute all tasks, with at most {@code maxConcurrency} of them running at any time, and return their results
+	 * in the order of the tasks. The first failure cancels the tasks not yet started and interrupts the running ones,
+	 * and is rethrown once none of the tasks is running any more.
+	 *
+	 * @param tasks the tasks to run
+	 * @param maxConcurrency the maximum number of tasks in flight, values below 2 run the tasks on the calling thread
+	 * @return the results, in task order
+	 */
+	public <T> List<T> invokeAll(List<? extends Callable<T>> tasks, int maxConcurrency) {
+		List<T> results = new ArrayList<T>(tasks.size());
+		if (maxConcurrency < 2 || tasks.size() < 2) {
+			for (Callable<T> task : tasks) {
+				results.add(call(task));
+			}
+			return results;
+		}
+
+		final Semaphore permits = new Semaphore(maxConcurrency);
+		final AtomicBoolean failed = new AtomicBoolean();
+		final Set<Thread> running = new HashSet<Thread>();
+		List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		try {
+			for (final Callable<T> task : tasks) {
+				permits.acquire();
+				if (failed.get()) {
+					break;
+				}
+				// futures are never cancelled, so that every submitted task can be waited for
+				futures.add(executor.submit(new Callable<T>() {
+					public T call() throws Exception {
+						try {
+							synchronized (running) {
+								if (failed.get()) {
+									return null;
+								}
+								running.add(Thread.currentThread());
+							}
+							try {
+								return task.call();
+							} catch (Throwable e) {
+								failed.set(true);
+								throw e;
+							} finally {
+								synchronized (running) {
+									running.remove(Thread.currentThread());
+								}
+							}
+						} finally {
+							permits.release();
+						}
+					}
+				}));
+			}
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			stop(futures, failed, running);
+			Thread.currentThread().interrupt();
+			throw new CloudOperationException(e);
+		} catch (ExecutionException e) {
+			stop(futures, failed, running);
+			throw unwrap(e.getCause());
+		}
+	}
+
+	/**
+	 * Execute a single task asynchronously.
+	 *
+	 * @param task the task to run
+	 * @return the future result of the task
+	 */
+	public <T> Future<T> submit(Callable<T> task) {
+		return executor.submit(task);
+	}
+
+	public ExecutorService getExecutorService() {
+		return executor;
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Convert the failure of a task into an unchecked exception, preserving runtime exceptions and errors as is.
+	 */
+	public static RuntimeException unwrap(Throwable cause) {
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new CloudOperationException(cause);
+	}
+
+	private static <T> T call(Callable<T> task) {
+		try {
+			return task.call();
+		} catch (Exception e) {
+			throw unwrap(e);
+		}
+	}
+
+	/**
+	 * Keep the tasks not yet started from running, interrupt the running ones and wait for them to finish.
+	 */
+	private static void stop(List<? extends Future<?>> futures, AtomicBoolean failed, Set<Thread> running) {
+		synchronized (running) {
+			failed.set(true);
+			for (Thread thread : running) {
+				thread.interrupt();
+			}
+		}
+		boolean interrupted = false;
+		for (Future<?> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		private final String threadNamePrefix;
+
+		DaemonThreadFactory(String threadNamePrefix) {
+			this.threadNamePrefix = threadNamePrefix;
+		}
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -29,9 +29,14 @@ import org.cloudfoundry.client.lib.domain.CloudSpace;
 import org.cloudfoundry.client.lib.domain.CloudStack;
 import org.cloudfoundry.client.lib.domain.Staging;
 
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -44,7 +49,13 @@ import java.util.UUID;
 //TODO: use some more advanced JSON mapping framework?
 public class CloudEntityResourceMapper {
 
-	private static SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+	// SimpleDateFormat is not thread-safe and resources may be mapped concurrently
+	private static final ThreadLocal<SimpleDateFormat> dateFormatter = new ThreadLocal<SimpleDateFormat>() {
+		@Override
+		protected SimpleDateFormat initialValue() {
+			return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+		}
+	};
 
 	public String getNameOfResource(Map<String, Object> resource) {
 		return getEntityAttribute(resource, "name", String.class);
@@ -152,11 +163,14 @@ public class CloudEntityResourceMapper {
 		app.setDiskQuota(getEntityAttribute(resource, "disk_quota", Integer.class));
 		List<Map<String, Object>> serviceBindings = getEntityAttribute(resource, "service_bindings", List.class);
 		List<String> serviceList = new ArrayList<String>();
-		for (Map<String, Object> binding : serviceBindings) {
-			Map<String, Object> service = getEntityAttribute(binding, "service_instance", Map.class);
-			String serviceName = getNameOfResource(service);
-			if (serviceName != null) {
-				serviceList.add(serviceName);
+		// bindings are not inlined in shallow listings
+		if (serviceBindings != null) {
+			for (Map<String, Object> binding : serviceBindings) {
+				Map<String, Object> service = getEntityAttribute(binding, "service_instance", Map.class);
+				String serviceName = getNameOfResource(service);
+				if (serviceName != null) {
+					serviceList.add(serviceName);
+				}
 			}
 		}
 		app.setServices(serviceList);
@@ -229,6 +243,246 @@ public class CloudEntityResourceMapper {
 				getEntityAttribute(resource, "description", String.class));
 	}
 
+	/**
+	 * Reads an organization straight from a listing.
+	 */
+	public static final JsonUtil.ResourceReader<CloudOrganization> ORGANIZATION_READER =
+			new JsonUtil.ResourceReader<CloudOrganization>() {
+				public CloudOrganization readResource(JsonParser parser) throws IOException {
+					return new ResourceBinder<CloudOrganization>() {
+						private String name;
+						private Boolean billingEnabled;
+
+						protected void readAttribute(String attribute, JsonParser parser) throws IOException {
+							if ("name".equals(attribute)) {
+								name = readText(parser);
+							} else if ("billing_enabled".equals(attribute)) {
+								billingEnabled = readBoolean(parser);
+							} else {
+								parser.skipChildren();
+							}
+						}
+
+						protected CloudOrganization create(CloudEntity.Meta meta) {
+							return new CloudOrganization(meta, name, billingEnabled);
+						}
+					}.read(parser);
+				}
+			};
+
+	/**
+	 * Reads a space, with its embedded organization, straight from a listing.
+	 */
+	public static final JsonUtil.ResourceReader<CloudSpace> SPACE_READER = new JsonUtil.ResourceReader<CloudSpace>() {
+		public CloudSpace readResource(JsonParser parser) throws IOException {
+			return new ResourceBinder<CloudSpace>() {
+				private String name;
+				private CloudOrganization organization;
+
+				protected void readAttribute(String attribute, JsonParser parser) throws IOException {
+					if ("name".equals(attribute)) {
+						name = readText(parser);
+					} else if ("organization".equals(attribute) && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+						organization = ORGANIZATION_READER.readResource(parser);
+					} else {
+						parser.skipChildren();
+					}
+				}
+
+				protected CloudSpace create(CloudEntity.Meta meta) {
+					return new CloudSpace(meta, name, organization);
+				}
+			}.read(parser);
+		}
+	};
+
+	/**
+	 * Reads service instances straight from a listing. The service plan of an instance only embeds its service
+	 * offering with a deep enough <code>inline-relations-depth</code>. Otherwise the instance is recorded under the
+	 * URL of the offering, so that the label, provider and version can be filled in once per offering.
+	 */
+	public static class ServiceInstanceReader implements JsonUtil.ResourceReader<CloudService> {
+
+		private final Map<String, List<CloudService>> unresolvedServices =
+				new LinkedHashMap<String, List<CloudService>>();
+
+		public CloudService readResource(JsonParser parser) throws IOException {
+			ServiceInstanceBinder binder = new ServiceInstanceBinder();
+			CloudService service = binder.read(parser);
+			if (!binder.offeringEmbedded && binder.offeringUrl != null) {
+				addUnresolvedService(binder.offeringUrl, service);
+			}
+			return service;
+		}
+
+		/**
+		 * Returns the service instances read since the last call whose offering still has to be filled in, keyed by
+		 * the URL of the offering.
+		 */
+		public synchronized Map<String, List<CloudService>> takeUnresolvedServices() {
+			Map<String, List<CloudService>> services =
+					new LinkedHashMap<String, List<CloudService>>(unresolvedServices);
+			unresolvedServices.clear();
+			return services;
+		}
+
+		private synchronized void addUnresolvedService(String offeringUrl, CloudService service) {
+			List<CloudService> services = unresolvedServices.get(offeringUrl);
+			if (services == null) {
+				services = new ArrayList<CloudService>();
+				unresolvedServices.put(offeringUrl, services);
+			}
+			services.add(service);
+		}
+	}
+
+	private static class ServiceInstanceBinder extends ResourceBinder<CloudService> {
+
+		private String name;
+		private String plan;
+		private String label;
+		private String provider;
+		private String version;
+		private boolean offeringEmbedded;
+		private String offeringUrl;
+
+		protected void readAttribute(String attribute, JsonParser parser) throws IOException {
+			if ("name".equals(attribute)) {
+				name = readText(parser);
+			} else if ("service_plan".equals(attribute) && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+				readServicePlan(parser);
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		private void readServicePlan(JsonParser parser) throws IOException {
+			new ResourceBinder<Void>() {
+				protected void readAttribute(String attribute, JsonParser parser) throws IOException {
+					if ("name".equals(attribute)) {
+						plan = readText(parser);
+					} else if ("service".equals(attribute) && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+						offeringEmbedded = true;
+						readServiceOffering(parser);
+					} else if ("service_url".equals(attribute)) {
+						offeringUrl = readText(parser);
+					} else {
+						parser.skipChildren();
+					}
+				}
+
+				protected Void create(CloudEntity.Meta meta) {
+					return null;
+				}
+			}.read(parser);
+		}
+
+		private void readServiceOffering(JsonParser parser) throws IOException {
+			new ResourceBinder<Void>() {
+				protected void readAttribute(String attribute, JsonParser parser) throws IOException {
+					if ("label".equals(attribute)) {
+						label = readText(parser);
+					} else if ("provider".equals(attribute)) {
+						provider = readText(parser);
+					} else if ("version".equals(attribute)) {
+						version = readText(parser);
+					} else {
+						parser.skipChildren();
+					}
+				}
+
+				protected Void create(CloudEntity.Meta meta) {
+					return null;
+				}
+			}.read(parser);
+		}
+
+		protected CloudService create(CloudEntity.Meta meta) {
+			CloudService service = new CloudService(meta, name);
+			service.setPlan(plan);
+			service.setLabel(label);
+			service.setProvider(provider);
+			service.setVersion(version);
+			return service;
+		}
+	}
+
+	/**
+	 * Binds the <code>metadata</code> and the attributes of the <code>entity</code> of a resource as they are
+	 * parsed, skipping the attributes that are not needed.
+	 */
+	private abstract static class ResourceBinder<T> {
+
+		/**
+		 * Read the value of an attribute of the entity, with the parser positioned on its first token. Values that
+		 * are not needed must be skipped with {@link JsonParser#skipChildren()}.
+		 */
+		protected abstract void readAttribute(String attribute, JsonParser parser) throws IOException;
+
+		protected abstract T create(CloudEntity.Meta meta);
+
+		T read(JsonParser parser) throws IOException {
+			CloudEntity.Meta meta = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if ("metadata".equals(field) && token == JsonToken.START_OBJECT) {
+					meta = readMeta(parser);
+				} else if ("entity".equals(field) && token == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String attribute = parser.getCurrentName();
+						parser.nextToken();
+						readAttribute(attribute, parser);
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+			return create(meta);
+		}
+	}
+
+	private static CloudEntity.Meta readMeta(JsonParser parser) throws IOException {
+		String guid = null;
+		String createdAt = null;
+		String updatedAt = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if ("guid".equals(field)) {
+				guid = readText(parser);
+			} else if ("created_at".equals(field)) {
+				createdAt = readText(parser);
+			} else if ("updated_at".equals(field)) {
+				updatedAt = readText(parser);
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return new CloudEntity.Meta(UUID.fromString(String.valueOf(guid)), parseDate(createdAt), parseDate(updatedAt));
+	}
+
+	private static String readText(JsonParser parser) throws IOException {
+		JsonToken token = parser.getCurrentToken();
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (token.isScalarValue()) {
+			return parser.getText();
+		}
+		parser.skipChildren();
+		return null;
+	}
+
+	private static Boolean readBoolean(JsonParser parser) throws IOException {
+		JsonToken token = parser.getCurrentToken();
+		if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+			return parser.getBooleanValue();
+		}
+		parser.skipChildren();
+		return null;
+	}
+
 	@SuppressWarnings("unchecked")
 	public static CloudEntity.Meta getMeta(Map<String, Object> resource) {
 		Map<String, Object> metadata = (Map<String, Object>) resource.get("metadata");
@@ -244,7 +498,7 @@ public class CloudEntityResourceMapper {
 				// if the time zone part of the dateString contains a colon (e.g. 2013-09-19T21:56:36+00:00)
 				// then remove it before parsing
 				String isoDateString = dateString.replaceFirst(":(?=[0-9]{2}$)", "");
-				return dateFormatter.parse(isoDateString);
+				return dateFormatter.get().parse(isoDateString);
 			} catch (Exception ignore) {}
 		}
 		return null;
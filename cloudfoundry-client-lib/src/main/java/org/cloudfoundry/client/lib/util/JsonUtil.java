@@ -20,11 +20,14 @@ package org.cloudfoundry.client.lib.util;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.cloudfoundry.client.lib.domain.CloudResource;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.type.TypeReference;
 import org.springframework.http.MediaType;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -60,6 +63,72 @@ public class JsonUtil {
 		return retMap;
 	}
 
+	/**
+	 * Reads a single resource of a listing, with the parser positioned on the <code>START_OBJECT</code> of the
+	 * resource. The parser must be left on the matching <code>END_OBJECT</code>.
+	 */
+	public interface ResourceReader<T> {
+		T readResource(JsonParser parser) throws IOException;
+	}
+
+	/**
+	 * Reads each resource as a generic map, for the listings whose resources are not bound to a type.
+	 */
+	public static final ResourceReader<Map<String, Object>> MAP_RESOURCE_READER =
+			new ResourceReader<Map<String, Object>>() {
+				public Map<String, Object> readResource(JsonParser parser) throws IOException {
+					return parser.readValueAs(new TypeReference<Map<String, Object>>() {});
+				}
+			};
+
+	/**
+	 * Read a page of a Cloud Controller listing straight from the response stream, with each resource as a map.
+	 *
+	 * @param json the stream of the JSON page
+	 * @return the page as a map with the fields read
+	 * @see #readResourcePage(InputStream, ResourceReader)
+	 */
+	public static Map<String, Object> readResourcePage(InputStream json) throws IOException {
+		return readResourcePage(json, MAP_RESOURCE_READER);
+	}
+
+	/**
+	 * Read a page of a Cloud Controller listing straight from the response stream. Only <code>resources</code>,
+	 * <code>next_url</code> and <code>total_pages</code> are bound, any other field is skipped by the parser.
+	 *
+	 * @param json the stream of the JSON page
+	 * @param reader the reader binding each resource
+	 * @return the page as a map with the fields read, <code>resources</code> holding the list of bound resources
+	 */
+	public static <T> Map<String, Object> readResourcePage(InputStream json, ResourceReader<T> reader)
+			throws IOException {
+		Map<String, Object> page = new HashMap<String, Object>();
+		JsonParser parser = mapper.getJsonFactory().createJsonParser(json);
+		try {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return page;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if ("resources".equals(field) && token == JsonToken.START_ARRAY) {
+					List<T> resources = new ArrayList<T>();
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						resources.add(reader.readResource(parser));
+					}
+					page.put(field, resources);
+				} else if ("next_url".equals(field) || "total_pages".equals(field)) {
+					page.put(field, parser.readValueAs(Object.class));
+				} else {
+					parser.skipChildren();
+				}
+			}
+		} finally {
+			parser.close();
+		}
+		return page;
+	}
+
 	public static List<String> convertJsonToList(String json) {
 		List<String> retList = new ArrayList<String>();
 		if (json != null) {
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+import org.cloudfoundry.client.lib.CompressionMetrics;
+
+/**
+ * Decompresses gzip and deflate encoded response bodies as they are read, recording the number of bytes received and
+ * produced. Pair with {@link org.apache.http.client.protocol.RequestAcceptEncoding} to ask servers for compression.
+ */
+public class ResponseDecompressionInterceptor implements HttpResponseInterceptor {
+
+	private final CompressionMetrics metrics;
+
+	public ResponseDecompressionInterceptor(CompressionMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+		HttpEntity entity = response.getEntity();
+		if (entity == null || entity.getContentEncoding() == null) {
+			return;
+		}
+		for (HeaderElement encoding : entity.getContentEncoding().getElements()) {
+			String name = encoding.getName().toLowerCase();
+			HttpEntity decompressingEntity;
+			if ("gzip".equals(name) || "x-gzip".equals(name)) {
+				decompressingEntity = new GzipDecompressingEntity(new CountingEntity(entity, false));
+			} else if ("deflate".equals(name)) {
+				decompressingEntity = new DeflateDecompressingEntity(new CountingEntity(entity, false));
+			} else if ("identity".equals(name)) {
+				return;
+			} else {
+				throw new HttpException("Unsupported Content-Coding: " + encoding.getName());
+			}
+			response.setEntity(new CountingEntity(decompressingEntity, true));
+			response.removeHeaders("Content-Length");
+			response.removeHeaders("Content-Encoding");
+			response.removeHeaders("Content-MD5");
+			if (metrics != null) {
+				metrics.addCompressedResponse();
+			}
+			return;
+		}
+	}
+
+	private class CountingEntity extends HttpEntityWrapper {
+
+		private final boolean decompressed;
+
+		CountingEntity(HttpEntity wrappedEntity, boolean decompressed) {
+			super(wrappedEntity);
+			this.decompressed = decompressed;
+		}
+
+		@Override
+		public Header getContentEncoding() {
+			return decompressed ? null : super.getContentEncoding();
+		}
+
+		@Override
+		public InputStream getContent() throws IOException {
+			InputStream content = super.getContent();
+			return metrics != null ? new CountingInputStream(content, decompressed) : content;
+		}
+
+		@Override
+		public void writeTo(OutputStream outstream) throws IOException {
+			InputStream content = getContent();
+			try {
+				byte[] buffer = new byte[4096];
+				int count;
+				while ((count = content.read(buffer)) != -1) {
+					outstream.write(buffer, 0, count);
+				}
+			} finally {
+				content.close();
+			}
+		}
+	}
+
+	private class CountingInputStream extends FilterInputStream {
+
+		private final boolean decompressed;
+
+		CountingInputStream(InputStream in, boolean decompressed) {
+			super(in);
+			this.decompressed = decompressed;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count(n);
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count(skipped);
+			return skipped;
+		}
+
+		private void count(long n) {
+			if (decompressed) {
+				metrics.addDecompressedBytes(n);
+			} else {
+				metrics.addCompressedBytes(n);
+			}
+		}
+	}
+}
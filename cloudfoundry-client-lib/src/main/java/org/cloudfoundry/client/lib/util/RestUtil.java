@@ -3,18 +3,29 @@ package org.cloudfoundry.client.lib.util;
 import static org.apache.http.conn.ssl.SSLSocketFactory.STRICT_HOSTNAME_VERIFIER;
 
 import org.apache.http.HttpHost;
-import org.apache.http.client.HttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.UserTokenHandler;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.conn.params.ConnRoutePNames;
 import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.protocol.HttpContext;
+import org.cloudfoundry.client.lib.CompressionMetrics;
+import org.cloudfoundry.client.lib.HttpConnectionConfiguration;
 import org.cloudfoundry.client.lib.HttpProxyConfiguration;
 import org.cloudfoundry.client.lib.oauth2.OauthClient;
 import org.cloudfoundry.client.lib.rest.CloudControllerClientImpl;
 import org.cloudfoundry.client.lib.rest.CloudControllerResponseErrorHandler;
 import org.cloudfoundry.client.lib.rest.LoggingRestTemplate;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.FormHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
@@ -23,11 +34,18 @@ import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Some helper utilities for creating classes used for the REST support.
@@ -36,9 +54,24 @@ import java.util.List;
  */
 public class RestUtil {
 
+	private static final ScheduledExecutorService idleConnectionEvictor =
+			Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "cloudfoundry-client-idle-connection-evictor");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
 	public RestTemplate createRestTemplate(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
-		RestTemplate restTemplate = new LoggingRestTemplate();
-		restTemplate.setRequestFactory(createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts));
+		return createRestTemplate(httpProxyConfiguration, trustSelfSignedCerts, null);
+	}
+
+	public RestTemplate createRestTemplate(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts,
+	                                       HttpConnectionConfiguration httpConnectionConfiguration) {
+		LoggingRestTemplate restTemplate = new LoggingRestTemplate();
+		restTemplate.setRequestFactory(createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts,
+				httpConnectionConfiguration, restTemplate.getCompressionMetrics()));
 		restTemplate.setErrorHandler(new CloudControllerResponseErrorHandler());
 		restTemplate.setMessageConverters(getHttpMessageConverters());
 
@@ -46,34 +79,112 @@ public class RestUtil {
 	}
 
 	public ClientHttpRequestFactory createRequestFactory(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
-		HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
-		HttpClient httpClient = requestFactory.getHttpClient();
+		return createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts, null);
+	}
+
+	public ClientHttpRequestFactory createRequestFactory(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts,
+	                                                     HttpConnectionConfiguration httpConnectionConfiguration) {
+		return createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts, httpConnectionConfiguration, null);
+	}
 
+	/**
+	 * Create a request factory backed by a pool of connections that can be used by several threads at once. Requests
+	 * time out as configured, and accept gzip and deflate encoded responses, which are decompressed as they are read,
+	 * unless they ask for an encoding themselves.
+	 *
+	 * @param httpConnectionConfiguration the tuning of the connection pool, or null for the defaults
+	 * @param compressionMetrics the metrics updated with the size of compressed responses, or null
+	 */
+	public ClientHttpRequestFactory createRequestFactory(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts,
+	                                                     HttpConnectionConfiguration httpConnectionConfiguration,
+	                                                     CompressionMetrics compressionMetrics) {
+		if (httpConnectionConfiguration == null) {
+			httpConnectionConfiguration = new HttpConnectionConfiguration();
+		}
+
+		SchemeRegistry schemeRegistry = SchemeRegistryFactory.createDefault();
 		if (trustSelfSignedCerts) {
-			registerSslSocketFactory(httpClient);
+			registerSslSocketFactory(schemeRegistry);
+		}
+
+		PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(schemeRegistry);
+		connectionManager.setMaxTotal(httpConnectionConfiguration.getMaxTotalConnections());
+		connectionManager.setDefaultMaxPerRoute(httpConnectionConfiguration.getMaxConnectionsPerRoute());
+		if (httpConnectionConfiguration.getIdleConnectionTimeout() > 0) {
+			scheduleIdleConnectionEviction(connectionManager, httpConnectionConfiguration.getIdleConnectionTimeout());
 		}
 
+		DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager);
+		HttpConnectionParams.setConnectionTimeout(httpClient.getParams(),
+				httpConnectionConfiguration.getConnectTimeout());
+		// requests that change their read timeout fall back to this one once they are done
+		HttpConnectionParams.setSoTimeout(httpClient.getParams(), httpConnectionConfiguration.getReadTimeout());
+		httpClient.setKeepAliveStrategy(new KeepAliveStrategy(httpConnectionConfiguration.getKeepAlive()));
+		// no client certificates are used, so any pooled TLS connection (and its session) can serve any request
+		httpClient.setUserTokenHandler(new UserTokenHandler() {
+			public Object getUserToken(HttpContext context) {
+				return null;
+			}
+		});
+
+		httpClient.addRequestInterceptor(new RequestAcceptEncoding());
+		httpClient.addResponseInterceptor(new ResponseDecompressionInterceptor(compressionMetrics));
+
 		if (httpProxyConfiguration != null) {
 			HttpHost proxy = new HttpHost(httpProxyConfiguration.getProxyHost(), httpProxyConfiguration.getProxyPort());
 			httpClient.getParams().setParameter(ConnRoutePNames.DEFAULT_PROXY, proxy);
 		}
 
-		return requestFactory;
+		return new TimeoutAwareHttpRequestFactory(httpClient);
 	}
 
 	public OauthClient createOauthClient(URL authorizationUrl, HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
-		return new OauthClient(authorizationUrl, createRestTemplate(httpProxyConfiguration, trustSelfSignedCerts));
+		return createOauthClient(authorizationUrl, httpProxyConfiguration, trustSelfSignedCerts, null);
 	}
 
-	private void registerSslSocketFactory(HttpClient httpClient)  {
+	public OauthClient createOauthClient(URL authorizationUrl, HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts,
+	                                     HttpConnectionConfiguration httpConnectionConfiguration) {
+		return new OauthClient(authorizationUrl,
+				createRestTemplate(httpProxyConfiguration, trustSelfSignedCerts, httpConnectionConfiguration));
+	}
+
+	private void registerSslSocketFactory(SchemeRegistry schemeRegistry)  {
 		try {
 			SSLSocketFactory socketFactory = new SSLSocketFactory(new TrustSelfSignedStrategy(), STRICT_HOSTNAME_VERIFIER);
-			httpClient.getConnectionManager().getSchemeRegistry().register(new Scheme("https", 443, socketFactory));
+			schemeRegistry.register(new Scheme("https", 443, socketFactory));
 		} catch (GeneralSecurityException gse) {
 			throw new RuntimeException("An error occurred setting up the SSLSocketFactory", gse);
 		}
 	}
 
+	/**
+	 * Periodically close expired and idle connections of the pool, until the pool is garbage collected.
+	 */
+	private static void scheduleIdleConnectionEviction(ClientConnectionManager connectionManager, final long idleTimeout) {
+		final WeakReference<ClientConnectionManager> connectionManagerRef =
+				new WeakReference<ClientConnectionManager>(connectionManager);
+		final AtomicReference<ScheduledFuture<?>> eviction = new AtomicReference<ScheduledFuture<?>>();
+		long period = Math.max(idleTimeout / 2, 1000);
+		eviction.set(idleConnectionEvictor.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				ClientConnectionManager manager = connectionManagerRef.get();
+				if (manager == null) {
+					ScheduledFuture<?> future = eviction.get();
+					if (future != null) {
+						future.cancel(false);
+					}
+					return;
+				}
+				try {
+					manager.closeExpiredConnections();
+					manager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+				} catch (RuntimeException e) {
+					// the pool has been shut down, it will be collected soon
+				}
+			}
+		}, period, period, TimeUnit.MILLISECONDS));
+	}
+
 	private List<HttpMessageConverter<?>> getHttpMessageConverters() {
 		List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>();
 		messageConverters.add(new ByteArrayHttpMessageConverter());
@@ -85,6 +196,27 @@ public class RestUtil {
 		return messageConverters;
 	}
 
+	/**
+	 * Keep connections alive as long as the server asks for, or for a configured duration if it doesn't say.
+	 */
+	private static class KeepAliveStrategy extends DefaultConnectionKeepAliveStrategy {
+
+		private final long defaultKeepAlive;
+
+		KeepAliveStrategy(long defaultKeepAlive) {
+			this.defaultKeepAlive = defaultKeepAlive;
+		}
+
+		@Override
+		public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+			long keepAlive = super.getKeepAliveDuration(response, context);
+			if (keepAlive < 0 && defaultKeepAlive > 0) {
+				return defaultKeepAlive;
+			}
+			return keepAlive;
+		}
+	}
+
 	private FormHttpMessageConverter getFormHttpMessageConverter() {
 		FormHttpMessageConverter formPartsMessageConverter = new CloudControllerClientImpl.CloudFoundryFormHttpMessageConverter();
 		formPartsMessageConverter.setPartConverters(getFormPartsMessageConverters());
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cloudfoundry.client.lib.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Request executed by Apache HttpClient whose body can be written straight to the connection, with chunked transfer
+ * encoding, while the request is executed. A body written to {@link #getBody()} is buffered and sent with its length,
+ * as Spring's own request does.
+ *
+ * @see TimeoutAwareHttpRequestFactory#setStreamingForCurrentThread(boolean)
+ */
+public class StreamingHttpComponentsRequest extends AbstractClientHttpRequest {
+
+	private final HttpClient httpClient;
+
+	private final HttpUriRequest httpRequest;
+
+	private final HttpContext httpContext;
+
+	private ByteArrayOutputStream bufferedBody;
+
+	private Body body;
+
+	StreamingHttpComponentsRequest(HttpClient httpClient, HttpUriRequest httpRequest, HttpContext httpContext) {
+		this.httpClient = httpClient;
+		this.httpRequest = httpRequest;
+		this.httpContext = httpContext;
+	}
+
+	public HttpMethod getMethod() {
+		return HttpMethod.valueOf(httpRequest.getMethod());
+	}
+
+	public URI getURI() {
+		return httpRequest.getURI();
+	}
+
+	/**
+	 * Set the body to write to the connection once the headers are sent, instead of buffering it. The headers,
+	 * including the content type, must be complete when the request is executed.
+	 *
+	 * @param body the body of the request
+	 */
+	public void setBody(Body body) {
+		this.body = body;
+	}
+
+	@Override
+	protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+		if (bufferedBody == null) {
+			bufferedBody = new ByteArrayOutputStream();
+		}
+		return bufferedBody;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			String headerName = entry.getKey();
+			// set by HttpClient from the entity
+			if (!headerName.equalsIgnoreCase("Content-Length") && !headerName.equalsIgnoreCase("Transfer-Encoding")) {
+				for (String headerValue : entry.getValue()) {
+					httpRequest.addHeader(headerName, headerValue);
+				}
+			}
+		}
+		if (httpRequest instanceof HttpEntityEnclosingRequest) {
+			HttpEntity entity = null;
+			if (body != null) {
+				entity = new BodyEntity(body);
+			} else if (bufferedBody != null) {
+				entity = new ByteArrayEntity(bufferedBody.toByteArray());
+			}
+			((HttpEntityEnclosingRequest) httpRequest).setEntity(entity);
+		}
+		return new Response(httpClient.execute(httpRequest, httpContext));
+	}
+
+	/**
+	 * The body of a request, written while the request is executed.
+	 */
+	public interface Body {
+
+		/**
+		 * Write the body. The stream must not be closed.
+		 *
+		 * @param outputStream the stream of the connection
+		 */
+		void writeTo(OutputStream outputStream) throws IOException;
+	}
+
+	private static class BodyEntity extends AbstractHttpEntity {
+
+		private final Body body;
+
+		private boolean written;
+
+		BodyEntity(Body body) {
+			this.body = body;
+			setChunked(true);
+		}
+
+		public boolean isRepeatable() {
+			return false;
+		}
+
+		public long getContentLength() {
+			return -1;
+		}
+
+		public InputStream getContent() {
+			throw new UnsupportedOperationException("The body can only be written");
+		}
+
+		public void writeTo(final OutputStream outputStream) throws IOException {
+			written = true;
+			// the chunked stream writes its last chunk when closed, message converters tend to close their stream
+			body.writeTo(new FilterOutputStream(outputStream) {
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					out.write(b, off, len);
+				}
+
+				@Override
+				public void close() throws IOException {
+					flush();
+				}
+			});
+		}
+
+		public boolean isStreaming() {
+			return !written;
+		}
+	}
+
+	private static class Response extends AbstractClientHttpResponse {
+
+		private final HttpResponse httpResponse;
+
+		private HttpHeaders headers;
+
+		Response(HttpResponse httpResponse) {
+			this.httpResponse = httpResponse;
+		}
+
+		public int getRawStatusCode() {
+			return httpResponse.getStatusLine().getStatusCode();
+		}
+
+		public String getStatusText() {
+			return httpResponse.getStatusLine().getReasonPhrase();
+		}
+
+		public HttpHeaders getHeaders() {
+			if (headers == null) {
+				headers = new HttpHeaders();
+				for (Header header : httpResponse.getAllHeaders()) {
+					headers.add(header.getName(), header.getValue());
+				}
+			}
+			return headers;
+		}
+
+		public InputStream getBody() throws IOException {
+			HttpEntity entity = httpResponse.getEntity();
+			return (entity != null ? entity.getContent() : null);
+		}
+
+		public void close() {
+			try {
+				EntityUtils.consume(httpResponse.getEntity());
+			} catch (IOException e) {
+				// the connection is not reused
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cache whose entries expire a fixed time after they were stored. A time to live of 0 disables caching.
+ */
+public class TimedCache<K, V> {
+
+	private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<K, Entry<V>>();
+
+	private volatile long timeToLive;
+
+	/**
+	 * @param timeToLive time in milliseconds after which an entry expires
+	 */
+	public TimedCache(long timeToLive) {
+		setTimeToLive(timeToLive);
+	}
+
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * Set the time to live of entries stored from now on. Setting it to 0 also clears the cache.
+	 *
+	 * @param timeToLive time in milliseconds after which an entry expires
+	 */
+	public void setTimeToLive(long timeToLive) {
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("Time to live can't be negative: " + timeToLive);
+		}
+		this.timeToLive = timeToLive;
+		if (timeToLive == 0) {
+			clear();
+		}
+	}
+
+	/**
+	 * @return the cached value, or null if there is none or it has expired
+	 */
+	public V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired()) {
+			entries.remove(key, entry);
+			return null;
+		}
+		return entry.value;
+	}
+
+	public void put(K key, V value) {
+		if (timeToLive > 0 && key != null && value != null) {
+			entries.put(key, new Entry<V>(value, System.currentTimeMillis() + timeToLive));
+		}
+	}
+
+	public void remove(K key) {
+		if (key != null) {
+			entries.remove(key);
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	private static class Entry<V> {
+
+		private final V value;
+
+		private final long expiresAt;
+
+		Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+	}
+}
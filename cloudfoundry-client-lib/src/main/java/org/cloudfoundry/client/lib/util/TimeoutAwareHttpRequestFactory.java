@@ -0,0 +1,93 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.util;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.params.HttpConnectionParams;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Request factory allowing the read timeout of the requests made by one thread to be changed, or their body to be
+ * streamed, without affecting the requests made concurrently by other threads through the same factory and connection
+ * pool.
+ */
+public class TimeoutAwareHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+	private final ThreadLocal<Integer> readTimeout = new ThreadLocal<Integer>();
+
+	private final ThreadLocal<Boolean> streaming = new ThreadLocal<Boolean>();
+
+	public TimeoutAwareHttpRequestFactory(HttpClient httpClient) {
+		super(httpClient);
+	}
+
+	/**
+	 * Use the given read timeout for the requests created by the current thread, until
+	 * {@link #resetReadTimeoutForCurrentThread()} is called.
+	 *
+	 * @param timeout the read timeout in milliseconds, 0 for no timeout
+	 */
+	public void setReadTimeoutForCurrentThread(int timeout) {
+		readTimeout.set(timeout);
+	}
+
+	/**
+	 * Go back to the read timeout of the factory for the requests created by the current thread.
+	 */
+	public void resetReadTimeoutForCurrentThread() {
+		readTimeout.remove();
+	}
+
+	/**
+	 * Create {@link StreamingHttpComponentsRequest}s for the current thread, whose body can be written to the
+	 * connection instead of being buffered, until called with <tt>false</tt>.
+	 *
+	 * @param streaming whether to create streaming requests
+	 */
+	public void setStreamingForCurrentThread(boolean streaming) {
+		if (streaming) {
+			this.streaming.set(Boolean.TRUE);
+		} else {
+			this.streaming.remove();
+		}
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		if (streaming.get() == null) {
+			return super.createRequest(uri, httpMethod);
+		}
+		HttpUriRequest httpRequest = createHttpUriRequest(httpMethod, uri);
+		postProcessHttpRequest(httpRequest);
+		return new StreamingHttpComponentsRequest(getHttpClient(), httpRequest, createHttpContext(httpMethod, uri));
+	}
+
+	@Override
+	protected void postProcessHttpRequest(HttpUriRequest request) {
+		Integer timeout = readTimeout.get();
+		if (timeout != null) {
+			// request parameters take precedence over the ones of the client
+			HttpConnectionParams.setSoTimeout(request.getParams(), timeout);
+		}
+	}
+}
@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -28,6 +29,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipFile;
 
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
@@ -97,6 +99,49 @@ public class CloudResourcesTest {
         }
     }
 
+    @Test
+    public void shouldKeepArchiveOrderWhenFingerprintingInParallel() throws Exception {
+        ZipFile zipFile = new ZipFile(SampleProjects.springTravel());
+        try {
+            ApplicationArchive archive = new ZipApplicationArchive(zipFile);
+            // 96 files split into 20 batches of 5, the last one holding a single file
+            CloudResources sequential = new CloudResources(archive, 1);
+            CloudResources parallel = new CloudResources(archive, 5);
+            assertThat(parallel.asList().size(), is(96));
+            assertThat(mapper.writeValueAsString(parallel), is(equalTo(mapper.writeValueAsString(sequential))));
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void shouldFingerprintEachFileOnceWhenBatchesAreUneven() throws Exception {
+        final List<ApplicationArchive.Entry> entries = new ArrayList<ApplicationArchive.Entry>();
+        List<String> expected = new ArrayList<String>();
+        final AtomicInteger digests = new AtomicInteger();
+        for (int i = 0; i < 13; i++) {
+            entries.add(new StubEntry("file-" + i, false, digests));
+            expected.add("file-" + i);
+            if (i % 4 == 0) {
+                entries.add(new StubEntry("dir-" + i + "/", true, digests));
+            }
+        }
+        ApplicationArchive archive = new ApplicationArchive() {
+            public String getFilename() {
+                return "stub.zip";
+            }
+
+            public Iterable<Entry> getEntries() {
+                return entries;
+            }
+        };
+        // 13 files split into 7 batches of 2 on 3 threads
+        CloudResources o = new CloudResources(archive, 3);
+        assertThat(new ArrayList<String>(o.getFilenames()), is(expected));
+        assertThat(o.asList().get(12).getSize(), is(12L));
+        assertThat(digests.get(), is(13));
+    }
+
     @Test
     public void shouldGetFilenames() throws Exception {
         List<CloudResource> resources = new ArrayList<CloudResource>();
@@ -106,4 +151,40 @@ public class CloudResourcesTest {
         Set<String> expected = new HashSet<String>(Arrays.asList("1", "2"));
         assertThat(o.getFilenames(), is(expected));
     }
+
+    private static class StubEntry implements ApplicationArchive.Entry {
+
+        private final String name;
+
+        private final boolean directory;
+
+        private final AtomicInteger digests;
+
+        StubEntry(String name, boolean directory, AtomicInteger digests) {
+            this.name = name;
+            this.directory = directory;
+            this.digests = digests;
+        }
+
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSize() {
+            return Long.parseLong(name.substring(name.indexOf('-') + 1).replace("/", ""));
+        }
+
+        public byte[] getSha1Digest() {
+            digests.incrementAndGet();
+            return new byte[] { (byte) getSize() };
+        }
+
+        public InputStream getInputStream() {
+            return null;
+        }
+    }
 }
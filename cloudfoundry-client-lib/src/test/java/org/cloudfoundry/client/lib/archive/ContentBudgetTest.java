@@ -0,0 +1,90 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cloudfoundry.client.lib.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+import org.springframework.util.FileCopyUtils;
+
+public class ContentBudgetTest {
+
+    @Test
+    public void shouldUploadRetainedContentWithoutReadingAgain() throws Exception {
+        ContentBudget budget = new ContentBudget(1024, 16);
+        CountingEntry entry = new CountingEntry("content");
+        entry.setContentBudget(budget);
+        entry.getSha1Digest();
+        assertEquals(7, budget.getReservedSize());
+
+        assertArrayEquals("content".getBytes("UTF-8"), FileCopyUtils.copyToByteArray(entry.getRetainedInputStream()));
+        assertEquals(1, entry.reads);
+        assertEquals(0, budget.getReservedSize());
+        assertNull(entry.releaseContent());
+    }
+
+    @Test
+    public void shouldNotRetainContentOutsideBudget() throws Exception {
+        ContentBudget budget = new ContentBudget(10, 8);
+        CountingEntry large = new CountingEntry("too large");
+        CountingEntry first = new CountingEntry("content");
+        CountingEntry second = new CountingEntry("content");
+        large.setContentBudget(budget);
+        first.setContentBudget(budget);
+        second.setContentBudget(budget);
+        large.getSha1Digest();
+        first.getSha1Digest();
+        second.getSha1Digest();
+        assertEquals(7, budget.getReservedSize());
+
+        assertNull(large.releaseContent());
+        assertNull(second.releaseContent());
+        first.releaseContent();
+        assertEquals(0, budget.getReservedSize());
+    }
+
+    private static class CountingEntry extends AbstractApplicationArchiveEntry {
+
+        private final byte[] content;
+
+        private int reads;
+
+        CountingEntry(String content) throws IOException {
+            this.content = content.getBytes("UTF-8");
+        }
+
+        public boolean isDirectory() {
+            return false;
+        }
+
+        public String getName() {
+            return "file";
+        }
+
+        public InputStream getInputStream() throws IOException {
+            reads++;
+            return new ByteArrayInputStream(content);
+        }
+    }
+}
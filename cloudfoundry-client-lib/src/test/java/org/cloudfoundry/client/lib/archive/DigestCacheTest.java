@@ -0,0 +1,197 @@
+/*
+ * Copyright 2009-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link DigestCache}.
+ */
+public class DigestCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReuseDigestOfUnchangedFile() throws Exception {
+        File cacheFile = new File(temporaryFolder.newFolder("cache"), "digests");
+        File file = createFile("a", "content");
+        byte[] digest = digest(1);
+
+        DigestCache cache = new DigestCache(cacheFile);
+        cache.putSha1Digest(DigestCache.FileState.of(file), digest);
+        cache.save();
+
+        assertArrayEquals(digest, new DigestCache(cacheFile).getSha1Digest(DigestCache.FileState.of(file)));
+    }
+
+    @Test
+    public void shouldIgnoreDigestOfModifiedFile() throws Exception {
+        File file = createFile("a", "content");
+        DigestCache cache = new DigestCache(new File(temporaryFolder.newFolder("cache"), "digests"));
+        cache.putSha1Digest(DigestCache.FileState.of(file), digest(1));
+
+        file.setLastModified(file.lastModified() - 10000);
+
+        assertNull(cache.getSha1Digest(DigestCache.FileState.of(file)));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() throws Exception {
+        File a = createFile("a", "a");
+        File b = createFile("b", "b");
+        File c = createFile("c", "c");
+        DigestCache cache = new DigestCache(new File(temporaryFolder.newFolder("cache"), "digests"), 2);
+        cache.putSha1Digest(DigestCache.FileState.of(a), digest(1));
+        cache.putSha1Digest(DigestCache.FileState.of(b), digest(2));
+        cache.getSha1Digest(DigestCache.FileState.of(a));
+        cache.putSha1Digest(DigestCache.FileState.of(c), digest(3));
+
+        assertArrayEquals(digest(1), cache.getSha1Digest(DigestCache.FileState.of(a)));
+        assertNull(cache.getSha1Digest(DigestCache.FileState.of(b)));
+        assertArrayEquals(digest(3), cache.getSha1Digest(DigestCache.FileState.of(c)));
+    }
+
+    @Test
+    public void shouldMergeConcurrentSaves() throws Exception {
+        File cacheFile = new File(temporaryFolder.newFolder("cache"), "digests");
+        File a = createFile("a", "a");
+        File b = createFile("b", "b");
+        DigestCache first = new DigestCache(cacheFile);
+        DigestCache second = new DigestCache(cacheFile);
+        first.putSha1Digest(DigestCache.FileState.of(a), digest(1));
+        second.putSha1Digest(DigestCache.FileState.of(b), digest(2));
+        first.save();
+        second.save();
+
+        DigestCache reloaded = new DigestCache(cacheFile);
+        assertArrayEquals(digest(1), reloaded.getSha1Digest(DigestCache.FileState.of(a)));
+        assertArrayEquals(digest(2), reloaded.getSha1Digest(DigestCache.FileState.of(b)));
+    }
+
+    @Test
+    public void shouldNotOverwriteNewerEntriesWithLoadedOnes() throws Exception {
+        File cacheFile = new File(temporaryFolder.newFolder("cache"), "digests");
+        File a = createFile("a", "a");
+        File b = createFile("b", "b");
+        DigestCache initial = new DigestCache(cacheFile);
+        initial.putSha1Digest(DigestCache.FileState.of(a), digest(1));
+        initial.save();
+
+        DigestCache first = new DigestCache(cacheFile);
+        assertArrayEquals(digest(1), first.getSha1Digest(DigestCache.FileState.of(a)));
+        DigestCache second = new DigestCache(cacheFile);
+        second.putSha1Digest(DigestCache.FileState.of(a), digest(2));
+        second.save();
+        first.putSha1Digest(DigestCache.FileState.of(b), digest(3));
+        first.save();
+
+        DigestCache reloaded = new DigestCache(cacheFile);
+        assertArrayEquals(digest(2), reloaded.getSha1Digest(DigestCache.FileState.of(a)));
+        assertArrayEquals(digest(3), reloaded.getSha1Digest(DigestCache.FileState.of(b)));
+    }
+
+    @Test
+    public void shouldNotRecordDigestOfRacilyCleanFile() throws Exception {
+        File file = createFile("a", "content");
+        file.setLastModified(System.currentTimeMillis());
+        DigestCache cache = new DigestCache(new File(temporaryFolder.newFolder("cache"), "digests"));
+        cache.putSha1Digest(DigestCache.FileState.of(file), digest(1));
+
+        assertNull(cache.getSha1Digest(DigestCache.FileState.of(file)));
+    }
+
+    @Test
+    public void shouldReplaceCorruptCacheFile() throws Exception {
+        File cacheFile = new File(temporaryFolder.newFolder("cache"), "digests");
+        File a = createFile("a", "a");
+        File b = createFile("b", "b");
+        DigestCache initial = new DigestCache(cacheFile);
+        initial.putSha1Digest(DigestCache.FileState.of(a), digest(1));
+        initial.save();
+        // garbage in place of the path of the first entry, after the header and the entry count
+        RandomAccessFile corrupt = new RandomAccessFile(cacheFile, "rw");
+        try {
+            corrupt.seek(14);
+            corrupt.write(new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff });
+        } finally {
+            corrupt.close();
+        }
+
+        DigestCache cache = new DigestCache(cacheFile);
+        assertNull(cache.getSha1Digest(DigestCache.FileState.of(a)));
+        cache.putSha1Digest(DigestCache.FileState.of(b), digest(2));
+        cache.save();
+
+        DigestCache reloaded = new DigestCache(cacheFile);
+        assertNull(reloaded.getSha1Digest(DigestCache.FileState.of(a)));
+        assertArrayEquals(digest(2), reloaded.getSha1Digest(DigestCache.FileState.of(b)));
+    }
+
+    @Test
+    public void shouldReuseDigestOfUnchangedZipEntry() throws Exception {
+        File cacheFile = new File(temporaryFolder.newFolder("cache"), "digests");
+        ZipEntry entry = zipEntry("a.txt", 1L);
+        DigestCache cache = new DigestCache(cacheFile);
+        cache.putSha1Digest(DigestCache.ZipEntryState.of(entry), digest(1));
+        cache.save();
+
+        DigestCache reloaded = new DigestCache(cacheFile);
+        assertArrayEquals(digest(1), reloaded.getSha1Digest(DigestCache.ZipEntryState.of(zipEntry("a.txt", 1L))));
+        assertNull(reloaded.getSha1Digest(DigestCache.ZipEntryState.of(zipEntry("a.txt", 2L))));
+        assertNull(DigestCache.ZipEntryState.of(new ZipEntry("b.txt")));
+    }
+
+    private static ZipEntry zipEntry(String name, long crc) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setCrc(crc);
+        entry.setSize(10L);
+        entry.setCompressedSize(8L);
+        return entry;
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        File file = new File(temporaryFolder.getRoot(), name);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        // files modified just before their digest is taken are not cached
+        file.setLastModified(System.currentTimeMillis() - 10000);
+        return file;
+    }
+
+    private static byte[] digest(int value) {
+        byte[] digest = new byte[20];
+        Arrays.fill(digest, (byte) value);
+        return digest;
+    }
+}
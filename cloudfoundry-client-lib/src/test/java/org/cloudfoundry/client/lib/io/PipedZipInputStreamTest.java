@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cloudfoundry.client.lib.io;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudfoundry.client.lib.io.DynamicZipInputStream.Entry;
+import org.junit.Test;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests for {@link PipedZipInputStream}.
+ */
+public class PipedZipInputStreamTest {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Test
+    public void shouldCreateSameContentAsDynamicZipInputStream() throws Exception {
+        List<Entry> entries = new ArrayList<Entry>();
+        entries.add(newEntry("a/b/c", newRandomBytes(100000)));
+        entries.add(newEntry("a/b/c/d/", null));
+        entries.add(newEntry("d/e/f", newRandomBytes(10000)));
+        byte[] expected = FileCopyUtils.copyToByteArray(new DynamicZipInputStream(entries));
+
+        byte[] actual = FileCopyUtils.copyToByteArray(new PipedZipInputStream(entries, 2, 1000));
+
+        assertThat(actual, is(equalTo(expected)));
+    }
+
+    @Test
+    public void shouldReportFailureOfEntry() throws Exception {
+        List<Entry> entries = new ArrayList<Entry>();
+        entries.add(new Entry() {
+            public String getName() {
+                return "a";
+            }
+
+            public InputStream getInputStream() throws IOException {
+                throw new IOException("Unreadable");
+            }
+        });
+        try {
+            FileCopyUtils.copyToByteArray(new PipedZipInputStream(entries));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertThat(e.getCause().getMessage(), is(equalTo("Unreadable")));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldReportErrorOfProducer() throws Exception {
+        List<Entry> entries = new ArrayList<Entry>();
+        entries.add(new Entry() {
+            public String getName() {
+                return "a";
+            }
+
+            public InputStream getInputStream() {
+                throw new AssertionError("Broken");
+            }
+        });
+        try {
+            FileCopyUtils.copyToByteArray(new PipedZipInputStream(entries));
+            fail("Expected AssertionError");
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), is(equalTo("Broken")));
+        }
+    }
+
+    private Entry newEntry(final String name, final byte[] content) {
+        return new Entry() {
+
+            public String getName() {
+                return name;
+            }
+
+            public InputStream getInputStream() {
+                if (content == null) {
+                    return null;
+                }
+                return new ByteArrayInputStream(content);
+            }
+        };
+    }
+
+    private byte[] newRandomBytes(int len) {
+        byte[] bytes = new byte[len];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+}
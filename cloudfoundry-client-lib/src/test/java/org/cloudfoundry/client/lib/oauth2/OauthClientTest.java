@@ -0,0 +1,103 @@
+package org.cloudfoundry.client.lib.oauth2;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.client.lib.CloudCredentials;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.AccessTokenRequest;
+import org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordAccessTokenProvider;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.web.client.RestTemplate;
+
+public class OauthClientTest {
+
+	private final AtomicInteger refreshCount = new AtomicInteger();
+
+	private final OauthClient oauthClient = createOauthClient();
+
+	@Test
+	public void testValidTokenIsNotRefreshed() {
+		oauthClient.init(new CloudCredentials(createToken("valid", 3600)));
+
+		Assert.assertEquals("bearer valid", oauthClient.getAuthorizationHeader());
+		Assert.assertEquals(0, refreshCount.get());
+	}
+
+	@Test
+	public void testExpiringTokenIsRefreshedOnceForConcurrentCallers() throws Exception {
+		oauthClient.init(new CloudCredentials(createToken("expiring", 10)));
+
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<String>> headers = new ArrayList<Future<String>>();
+			for (int i = 0; i < 64; i++) {
+				headers.add(executor.submit(new Callable<String>() {
+					public String call() {
+						return oauthClient.getAuthorizationHeader();
+					}
+				}));
+			}
+			for (Future<String> header : headers) {
+				Assert.assertEquals("bearer refreshed-1", header.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(1, refreshCount.get());
+	}
+
+	@Test
+	public void testClear() {
+		oauthClient.init(new CloudCredentials(createToken("valid", 3600)));
+		oauthClient.clear();
+
+		Assert.assertNull(oauthClient.getToken());
+		Assert.assertNull(oauthClient.getAuthorizationHeader());
+	}
+
+	private OauthClient createOauthClient() {
+		try {
+			return new OauthClient(new URL("http://uaa.example.com"), new RestTemplate()) {
+				@Override
+				protected ResourceOwnerPasswordAccessTokenProvider createResourceOwnerPasswordAccessTokenProvider() {
+					return new ResourceOwnerPasswordAccessTokenProvider() {
+						@Override
+						public OAuth2AccessToken refreshAccessToken(OAuth2ProtectedResourceDetails resource,
+								OAuth2RefreshToken refreshToken, AccessTokenRequest request) {
+							int count = refreshCount.incrementAndGet();
+							try {
+								Thread.sleep(100);
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+							return createToken("refreshed-" + count, 3600);
+						}
+					};
+				}
+			};
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static OAuth2AccessToken createToken(String value, int expiresIn) {
+		DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(value);
+		token.setTokenType("bearer");
+		token.setExpiration(new Date(System.currentTimeMillis() + expiresIn * 1000L));
+		token.setRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+		return token;
+	}
+}
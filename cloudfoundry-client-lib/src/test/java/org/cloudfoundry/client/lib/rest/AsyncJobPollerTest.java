@@ -0,0 +1,103 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.client.lib.CloudOperationException;
+import org.cloudfoundry.client.lib.UploadStatusCallback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncJobPollerTest {
+
+	private final List<Long> delays = Collections.synchronizedList(new ArrayList<Long>());
+
+	// records the delays asked for, and polls right away
+	private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1) {
+		@Override
+		public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+			delays.add(unit.toMillis(delay));
+			return super.schedule(command, 0, unit);
+		}
+	};
+
+	@After
+	public void tearDown() {
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void testBackoffUntilFinished() throws Exception {
+		AsyncJobPoller poller = createPoller(UploadStatusCallback.NONE, 100, 500,
+				"running", "running", "running", "running", "running", "finished");
+		poller.start(job("queued"));
+
+		Assert.assertNull(poller.get(5, TimeUnit.SECONDS));
+		Assert.assertTrue(poller.isDone());
+		Assert.assertEquals(Arrays.asList(100L, 200L, 400L, 500L, 500L, 500L), delays);
+	}
+
+	@Test
+	public void testFailedJob() throws Exception {
+		AsyncJobPoller poller = createPoller(UploadStatusCallback.NONE, 100, 500, "failed");
+		poller.start(job("queued"));
+
+		try {
+			poller.get(5, TimeUnit.SECONDS);
+			Assert.fail("Expected the job to fail");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof CloudOperationException);
+		}
+	}
+
+	@Test
+	public void testUnsubscribe() throws Exception {
+		UploadStatusCallback callback = new UploadStatusCallback() {
+			public void onCheckResources() {
+			}
+
+			public void onMatchedFileNames(Set<String> matchedFileNames) {
+			}
+
+			public void onProcessMatchedResources(int length) {
+			}
+
+			public boolean onProgress(String status) {
+				return "running".equals(status);
+			}
+		};
+		AsyncJobPoller poller = createPoller(callback, 100, 500, "running", "finished");
+		poller.start(job("queued"));
+
+		Assert.assertNull(poller.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(Collections.singletonList(100L), delays);
+	}
+
+	private AsyncJobPoller createPoller(UploadStatusCallback callback, long initialDelay, long maxDelay,
+										String... statuses) {
+		final Iterator<String> jobStatuses = Arrays.asList(statuses).iterator();
+		return new AsyncJobPoller(scheduler, callback, initialDelay, maxDelay) {
+			protected Map<String, String> getJobEntity(String jobId) {
+				return job(jobStatuses.next());
+			}
+		};
+	}
+
+	private static Map<String, String> job(String status) {
+		Map<String, String> job = new HashMap<String, String>();
+		job.put("guid", "job");
+		job.put("status", status);
+		return job;
+	}
+}
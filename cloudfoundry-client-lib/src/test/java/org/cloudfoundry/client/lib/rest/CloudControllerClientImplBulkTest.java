@@ -0,0 +1,95 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.cloudfoundry.client.lib.BulkOperationResult;
+import org.cloudfoundry.client.lib.CloudFoundryBulkClient;
+import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Applies bulk operations against a stub controller, checking the requests sent and the outcome reported for each
+ * application.
+ */
+public class CloudControllerClientImplBulkTest {
+
+	@Rule
+	public StubCloudController controller = new StubCloudController();
+
+	private CloudFoundryBulkClient bulkClient;
+
+	private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void setUp() throws Exception {
+		controller.register("/v2/apps", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				String uri = exchange.getRequestURI().toString();
+				String body = new String(FileCopyUtils.copyToByteArray(exchange.getRequestBody()), "UTF-8");
+				requests.add(exchange.getRequestMethod() + " " + uri + (body.length() > 0 ? " " + body : ""));
+				if ("PUT".equals(exchange.getRequestMethod())) {
+					// the third application can't be updated
+					exchange.sendResponseHeaders(uri.contains(guid(3)) ? 500 : 201, -1);
+					exchange.close();
+					return;
+				}
+				StubCloudController.respond(exchange, "{\"total_results\":3,\"total_pages\":1,\"next_url\":null," +
+						"\"resources\":[" + createApp(1, "STOPPED") + "," + createApp(2, "STARTED") + "," +
+						createApp(3, "STOPPED") + "]}");
+			}
+		});
+		bulkClient = new CloudFoundryBulkClient(controller.createClient(), 2);
+	}
+
+	@Test
+	public void shouldReportOutcomeOfEachApplication() throws Exception {
+		BulkOperationResult result = bulkClient.start(Arrays.asList("app-1", "app-2", "app-3", "app-4"));
+
+		Assert.assertEquals(Arrays.asList("app-1", "app-2"), result.getSucceeded());
+		Assert.assertEquals(Arrays.asList("app-3", "app-4"), new ArrayList<String>(result.getFailures().keySet()));
+		Assert.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+				((HttpServerErrorException) result.getFailures().get("app-3")).getStatusCode());
+		Assert.assertEquals(HttpStatus.NOT_FOUND,
+				((CloudFoundryException) result.getFailures().get("app-4")).getStatusCode());
+		Assert.assertFalse(result.isSuccessful());
+	}
+
+	@Test
+	public void shouldNotStartStartedApplications() throws Exception {
+		bulkClient.start(Arrays.asList("app-1", "app-2"));
+
+		Assert.assertEquals(2, requests.size());
+		Assert.assertEquals("GET /v2/apps?inline-relations-depth=0", requests.get(0));
+		Assert.assertEquals("PUT /v2/apps/" + guid(1) + "?stage_async=true {\"state\":\"STARTED\"}", requests.get(1));
+	}
+
+	@Test
+	public void shouldNotStopStoppedApplications() throws Exception {
+		BulkOperationResult result = bulkClient.stop(Arrays.asList("app-1", "app-2"));
+
+		Assert.assertTrue(result.isSuccessful());
+		Assert.assertEquals(Arrays.asList("GET /v2/apps?inline-relations-depth=0",
+				"PUT /v2/apps/" + guid(2) + " {\"state\":\"STOPPED\"}"), requests);
+	}
+
+	private static String createApp(int i, String state) {
+		return "{\"metadata\":{\"guid\":\"" + guid(i) + "\"},\"entity\":{\"name\":\"app-" + i + "\",\"state\":\"" +
+				state + "\"}}";
+	}
+
+	private static String guid(int i) {
+		return String.format("00000000-0000-0000-0003-%012d", i);
+	}
+}
@@ -0,0 +1,167 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Shares one client between many threads against a stub controller serving listings of several pages, checking that
+ * every thread sees consistent results.
+ */
+public class CloudControllerClientImplConcurrencyTest {
+
+	private static final int THREADS = 64;
+
+	private static final int ITERATIONS = 20;
+
+	private static final int SPACES = 20;
+
+	private static final int PAGES = 4;
+
+	private static final Pattern PAGE_PATTERN = Pattern.compile("[?&]page=(\\d+)");
+
+	@Rule
+	public StubCloudController controller = new StubCloudController(16);
+
+	private CloudControllerClientImpl client;
+
+	private ExecutorService executor;
+
+	private final List<String> passwordChanges = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void setUp() throws Exception {
+		controller.register("/v2/spaces", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				Matcher matcher = PAGE_PATTERN.matcher(exchange.getRequestURI().toString());
+				int page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+				StubCloudController.respond(exchange, createSpacesPage(page));
+			}
+		});
+		controller.register("/userinfo", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				StubCloudController.respond(exchange, "{\"user_id\":\"user\"}");
+			}
+		});
+		controller.register("/User/user/password", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				String body = new String(FileCopyUtils.copyToByteArray(exchange.getRequestBody()), "UTF-8");
+				passwordChanges.add(body.replaceAll(".*\"password\":\"([^\"]*)\".*", "$1"));
+				StubCloudController.respond(exchange, "{}");
+			}
+		});
+		client = controller.createClient();
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testConcurrentListings() throws Exception {
+		List<Future<List<CloudSpace>>> results = new ArrayList<Future<List<CloudSpace>>>();
+		for (int i = 0; i < THREADS * ITERATIONS; i++) {
+			final boolean iterate = i % 2 == 0;
+			results.add(executor.submit(new Callable<List<CloudSpace>>() {
+				public List<CloudSpace> call() {
+					if (!iterate) {
+						return client.getSpaces();
+					}
+					List<CloudSpace> spaces = new ArrayList<CloudSpace>();
+					for (Iterator<CloudSpace> it = client.iterateSpaces(); it.hasNext(); ) {
+						spaces.add(it.next());
+					}
+					return spaces;
+				}
+			}));
+		}
+
+		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+		for (Future<List<CloudSpace>> result : results) {
+			List<CloudSpace> spaces = result.get(60, TimeUnit.SECONDS);
+			Assert.assertEquals(SPACES, spaces.size());
+			for (int i = 0; i < SPACES; i++) {
+				CloudSpace space = spaces.get(i);
+				Assert.assertEquals("space-" + i, space.getName());
+				Assert.assertEquals("org-" + i, space.getOrganization().getName());
+				Assert.assertEquals(dateFormat.parse(createdAt(i).replace("+00:00", "+0000")),
+						space.getMeta().getCreated());
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentPasswordUpdates() throws Exception {
+		List<Future<?>> results = new ArrayList<Future<?>>();
+		for (int i = 0; i < THREADS; i++) {
+			final String password = "password-" + i;
+			final boolean list = i % 2 == 0;
+			results.add(executor.submit(new Callable<Object>() {
+				public Object call() {
+					if (list) {
+						return client.getSpaces();
+					}
+					client.updatePassword(password);
+					return null;
+				}
+			}));
+		}
+
+		for (Future<?> result : results) {
+			result.get(60, TimeUnit.SECONDS);
+		}
+		Assert.assertEquals(THREADS / 2, passwordChanges.size());
+		// the credentials end up with one of the new passwords, never a mix of two updates
+		Assert.assertTrue(passwordChanges.contains(client.cloudCredentials.getPassword()));
+	}
+
+	private static String createSpacesPage(int pageNumber) {
+		int pageSize = SPACES / PAGES;
+		String nextUrl = pageNumber < PAGES ? "\"/v2/spaces?inline-relations-depth=1&page=" + (pageNumber + 1) +
+				"&results-per-page=" + pageSize + "\"" : "null";
+		StringBuilder page = new StringBuilder("{\"total_results\":" + SPACES + ",\"total_pages\":" + PAGES + "," +
+				"\"prev_url\":null,\"next_url\":" + nextUrl + ",\"resources\":[");
+		for (int i = (pageNumber - 1) * pageSize; i < pageNumber * pageSize; i++) {
+			if (i > (pageNumber - 1) * pageSize) {
+				page.append(',');
+			}
+			page.append("{\"metadata\":{\"guid\":\"").append(guid(i, 1)).append("\",\"created_at\":\"")
+					.append(createdAt(i)).append("\",\"updated_at\":null},\"entity\":{\"name\":\"space-").append(i)
+					.append("\",\"organization\":{\"metadata\":{\"guid\":\"").append(guid(i, 2))
+					.append("\",\"created_at\":\"").append(createdAt(i)).append("\"},\"entity\":{\"name\":\"org-")
+					.append(i).append("\",\"billing_enabled\":false}}}}");
+		}
+		return page.append("]}").toString();
+	}
+
+	private static String createdAt(int i) {
+		return String.format("20%02d-%02d-%02dT%02d:%02d:%02d+00:00", 10 + i % 10, 1 + i % 12, 1 + i, i % 24, i, 59 - i);
+	}
+
+	private static String guid(int i, int kind) {
+		return String.format("00000000-0000-0000-%04d-%012d", kind, i);
+	}
+}
@@ -0,0 +1,303 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.cloudfoundry.client.lib.CloudFoundryClient;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Reads files of application instances from a stub controller, checking the ranges asked for and how the content is
+ * put back together.
+ */
+public class CloudControllerClientImplFileTest {
+
+	private static final String APP_GUID = "6b3ba8b4-0bb5-4d25-9b2e-1c4e4ad5e0a1";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Rule
+	public StubCloudController controller = new StubCloudController(8);
+
+	private CloudControllerClientImpl client;
+
+	private volatile byte[] content = createContent(10000);
+
+	private final List<String> fileRequests = Collections.synchronizedList(new ArrayList<String>());
+
+	private final Set<String> instancesWithoutRangeSupport = Collections.synchronizedSet(new HashSet<String>());
+
+	private final AtomicInteger failures = new AtomicInteger();
+
+	private volatile boolean brokenLog;
+
+	private final AtomicInteger activeLogRequests = new AtomicInteger();
+
+	private final AtomicInteger maxActiveLogRequests = new AtomicInteger();
+
+	@Before
+	public void setUp() throws Exception {
+		controller.register("/v2/apps", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				String path = exchange.getRequestURI().getPath();
+				if (path.contains("/files/logs/log-")) {
+					serveLogFile(exchange, path.substring(path.lastIndexOf('/') + 1));
+				} else if (path.endsWith("/files/logs")) {
+					StubCloudController.respond(exchange, 200, "text/plain;charset=utf-8",
+							"log-0.txt 10B\nlog-1.txt 10B\nlog-2.txt 10B\nlog-3.txt 10B\n" +
+							(brokenLog ? "log-broken.txt 10B\n" : ""));
+				} else if (path.contains("/files/")) {
+					serveFile(exchange);
+				} else {
+					StubCloudController.respond(exchange, "{\"total_results\":1,\"total_pages\":1,\"next_url\":null," +
+							"\"resources\":[{\"metadata\":{\"guid\":\"" + APP_GUID + "\"}," +
+							"\"entity\":{\"name\":\"app\",\"stack\":{\"metadata\":{\"guid\":\"" + APP_GUID + "\"}," +
+							"\"entity\":{\"name\":\"s\"}}}}]}");
+				}
+			}
+		});
+		client = controller.createClient();
+	}
+
+	@Test
+	public void shouldAskForRangesOfUnencodedContent() throws Exception {
+		String range = client.getFile("app", 0, "logs/app.log", 100, 199);
+
+		Assert.assertEquals(new String(content, 100, 100, "ISO-8859-1"), range);
+		Assert.assertEquals(Collections.singletonList("GET bytes=100-199 identity"), fileRequests);
+	}
+
+	@Test
+	public void shouldDownloadRangedSegments() throws Exception {
+		content = createContent(3 * 1024 * 1024 + 100);
+		File destination = temporaryFolder.newFile("app.log");
+
+		client.getFile("app", 0, "logs/app.log", destination, 4);
+
+		Assert.assertArrayEquals(content, FileCopyUtils.copyToByteArray(destination));
+		Assert.assertTrue(fileRequests.contains("GET bytes=0-1048575 identity"));
+		Assert.assertTrue(fileRequests.contains("GET bytes=3145728-3145827 identity"));
+		Assert.assertEquals(5, fileRequests.size());
+	}
+
+	@Test
+	public void shouldRetrySegmentAfterServerError() throws Exception {
+		content = createContent(2 * 1024 * 1024);
+		File destination = temporaryFolder.newFile("app.log");
+		failures.set(1);
+
+		client.getFile("app", 0, "logs/app.log", destination, 2);
+
+		Assert.assertArrayEquals(content, FileCopyUtils.copyToByteArray(destination));
+		Assert.assertEquals(4, fileRequests.size());
+	}
+
+	@Test
+	public void shouldDownloadWholeFileWithoutRangeSupport() throws Exception {
+		content = createContent(2 * 1024 * 1024);
+		File destination = temporaryFolder.newFile("app.log");
+		instancesWithoutRangeSupport.add("0");
+
+		client.getFile("app", 0, "logs/app.log", destination, 2);
+
+		Assert.assertArrayEquals(content, FileCopyUtils.copyToByteArray(destination));
+		Assert.assertEquals(Arrays.asList("HEAD bytes=0-0 identity", "GET null identity"), fileRequests);
+	}
+
+	@Test
+	public void shouldDeleteDestinationWhenSegmentFails() throws Exception {
+		content = createContent(2 * 1024 * 1024);
+		File destination = temporaryFolder.newFile("app.log");
+		failures.set(Integer.MAX_VALUE);
+
+		try {
+			client.getFile("app", 0, "logs/app.log", destination, 2);
+			Assert.fail("Expected the download to fail");
+		} catch (HttpServerErrorException e) {
+			Assert.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+		}
+		Assert.assertFalse(destination.exists());
+	}
+
+	@Test
+	public void shouldRecordRangeSupportPerInstance() throws Exception {
+		instancesWithoutRangeSupport.add("1");
+
+		// the range is cut out of the whole file sent back
+		Assert.assertEquals(new String(content, 100, 100, "ISO-8859-1"), client.getFile("app", 1, "app.log", 100, 199));
+		Assert.assertEquals(new String(content, 9000, 1000, "ISO-8859-1"),
+				client.getFile("app", 1, "app.log", 9000, -1));
+		Assert.assertEquals(new String(content, 200, 100, "ISO-8859-1"), client.getFile("app", 0, "app.log", 200, 299));
+
+		Assert.assertEquals(Arrays.asList("GET bytes=100-199 identity", "GET null identity",
+				"GET bytes=200-299 identity"), fileRequests);
+	}
+
+	@Test
+	public void shouldKeepRangeSupportWhenInfoIsNotCached() throws Exception {
+		instancesWithoutRangeSupport.add("0");
+		client.setInfoCacheTimeout(0);
+
+		client.getFile("app", 0, "app.log", 100, 199);
+		client.getFile("app", 0, "app.log", 200, 299);
+
+		Assert.assertEquals(Arrays.asList("GET bytes=100-199 identity", "GET null identity"), fileRequests);
+	}
+
+	@Test
+	public void shouldDeleteDestinationWhenStreamFails() throws Exception {
+		File destination = temporaryFolder.newFile("app.log");
+		failures.set(Integer.MAX_VALUE);
+
+		try {
+			new CloudFoundryClient(client).getFile("app", 0, "logs/app.log", destination);
+			Assert.fail("Expected the download to fail");
+		} catch (HttpServerErrorException e) {
+			Assert.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+		}
+		Assert.assertFalse(destination.exists());
+	}
+
+	@Test
+	public void shouldCutTailOutOfWholeFile() throws Exception {
+		content = createContent(3 * 1024 * 1024 + 100);
+		instancesWithoutRangeSupport.add("0");
+
+		// longer than the read buffer, and not a multiple of it
+		String tail = client.getFile("app", 0, "app.log", -1, 10000);
+		Assert.assertEquals(new String(content, content.length - 10000, 10000, "ISO-8859-1"), tail);
+
+		content = createContent(100);
+		Assert.assertEquals(new String(content, "ISO-8859-1"), client.getFile("app", 0, "app.log", -1, 300));
+		Assert.assertEquals(Arrays.asList("GET bytes=-10000 identity", "GET null identity"), fileRequests);
+	}
+
+	@Test
+	public void shouldStreamFileAsItIsRead() throws Exception {
+		content = createContent(3 * 1024 * 1024);
+		final AtomicInteger largestWrite = new AtomicInteger();
+		ByteArrayOutputStream out = new ByteArrayOutputStream() {
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				largestWrite.set(Math.max(largestWrite.get(), len));
+				super.write(b, off, len);
+			}
+		};
+
+		client.getFile("app", 0, "app.log", -1, -1, out);
+
+		Assert.assertArrayEquals(content, out.toByteArray());
+		Assert.assertTrue("Content was buffered before being written", largestWrite.get() <= 8192);
+	}
+
+	@Test
+	public void shouldFetchLogFilesConcurrentlyWithinLimit() throws Exception {
+		client.setMaxConcurrentRequests(2);
+
+		Map<String, String> logs = client.getLogs("app");
+
+		Assert.assertEquals(4, logs.size());
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals("content of log-" + i + ".txt", logs.get("logs/log-" + i + ".txt"));
+		}
+		Assert.assertEquals(2, maxActiveLogRequests.get());
+	}
+
+	@Test
+	public void shouldFailLogsWhenFileFails() throws Exception {
+		brokenLog = true;
+
+		try {
+			client.getLogs("app");
+			Assert.fail("Expected the logs to fail");
+		} catch (HttpServerErrorException e) {
+			Assert.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, e.getStatusCode());
+		}
+	}
+
+	private void serveLogFile(HttpExchange exchange, String name) throws IOException {
+		int active = activeLogRequests.incrementAndGet();
+		int max = maxActiveLogRequests.get();
+		while (active > max && !maxActiveLogRequests.compareAndSet(max, active)) {
+			max = maxActiveLogRequests.get();
+		}
+		try {
+			// the first files are the slowest, so they complete last
+			Thread.sleep(name.startsWith("log-broken") ? 0 : (4 - (name.charAt(4) - '0')) * 50);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			// before responding, so that the client can't start its next request first
+			activeLogRequests.decrementAndGet();
+		}
+		if ("log-broken.txt".equals(name)) {
+			StubCloudController.respond(exchange, 500, "text/plain;charset=utf-8", "");
+		} else {
+			StubCloudController.respond(exchange, 200, "text/plain;charset=utf-8", "content of " + name);
+		}
+	}
+
+	private void serveFile(HttpExchange exchange) throws IOException {
+		boolean head = "HEAD".equals(exchange.getRequestMethod());
+		String range = exchange.getRequestHeaders().getFirst("Range");
+		fileRequests.add(exchange.getRequestMethod() + " " + range + " " +
+				exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+		if (!head && failures.getAndDecrement() > 0) {
+			exchange.sendResponseHeaders(503, -1);
+			exchange.close();
+			return;
+		}
+		int first = 0;
+		int last = content.length - 1;
+		int status = 200;
+		String instance = exchange.getRequestURI().getPath().split("/")[5];
+		if (range != null && !instancesWithoutRangeSupport.contains(instance)) {
+			String[] bounds = range.substring("bytes=".length()).split("-", -1);
+			if (bounds[0].length() == 0) {
+				first = Math.max(content.length - Integer.parseInt(bounds[1]), 0);
+			} else {
+				first = Integer.parseInt(bounds[0]);
+				if (bounds[1].length() > 0) {
+					last = Math.min(last, Integer.parseInt(bounds[1]));
+				}
+			}
+			status = 206;
+			exchange.getResponseHeaders().set("Content-Range",
+					"bytes " + first + "-" + last + "/" + content.length);
+		}
+		exchange.sendResponseHeaders(status, head ? -1 : last - first + 1);
+		OutputStream body = exchange.getResponseBody();
+		if (!head) {
+			body.write(content, first, last - first + 1);
+		}
+		body.close();
+	}
+
+	private static byte[] createContent(int length) {
+		byte[] content = new byte[length];
+		for (int i = 0; i < length; i++) {
+			content[i] = (byte) ('a' + i % 26);
+		}
+		return content;
+	}
+}
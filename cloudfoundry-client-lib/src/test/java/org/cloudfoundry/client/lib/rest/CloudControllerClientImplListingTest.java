@@ -0,0 +1,178 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudService;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Lists entities from a stub controller, checking which pages and related resources are requested.
+ */
+public class CloudControllerClientImplListingTest {
+
+	private static final int PAGES = 3;
+
+	private static final int PAGE_SIZE = 2;
+
+	private static final Pattern PAGE_PATTERN = Pattern.compile("[?&]page=(\\d+)");
+
+	@Rule
+	public StubCloudController controller = new StubCloudController();
+
+	private CloudControllerClientImpl client;
+
+	private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void setUp() throws Exception {
+		controller.register("/v2/spaces", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				String uri = exchange.getRequestURI().toString();
+				requests.add(uri);
+				Matcher matcher = PAGE_PATTERN.matcher(uri);
+				int page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+				StubCloudController.respond(exchange, createSpacesPage(page));
+			}
+		});
+		controller.register("/v2/service_instances", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.add(exchange.getRequestURI().toString());
+				StubCloudController.respond(exchange, "{\"total_results\":3,\"total_pages\":1,\"next_url\":null," +
+						"\"resources\":[" +
+						createServiceInstance(0, "{\"metadata\":{\"guid\":\"" + guid(4, 0) + "\"},\"entity\":" +
+								"{\"name\":\"small\",\"service_url\":\"/v2/services/" + guid(5, 0) + "\"}}") + "," +
+						createServiceInstance(1, "{\"metadata\":{\"guid\":\"" + guid(4, 1) + "\"},\"entity\":" +
+								"{\"name\":\"large\",\"service_url\":\"/v2/services/" + guid(5, 0) + "\"}}") + "," +
+						createServiceInstance(2, null) + "]}");
+			}
+		});
+		controller.register("/v2/services", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.add(exchange.getRequestURI().toString());
+				StubCloudController.respond(exchange, "{\"metadata\":{\"guid\":\"" + guid(5, 0) + "\"},\"entity\":" +
+						"{\"label\":\"mysql\",\"provider\":\"core\",\"version\":\"5.5\"}}");
+			}
+		});
+		controller.register("/v2/apps", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				String uri = exchange.getRequestURI().toString();
+				requests.add(uri);
+				if (uri.endsWith("/service_bindings")) {
+					StubCloudController.respond(exchange, "{\"total_results\":1,\"total_pages\":1," +
+							"\"next_url\":null,\"resources\":[{\"metadata\":{\"guid\":\"" + guid(7, 0) + "\"}," +
+							"\"entity\":{\"service_instance\":{\"metadata\":{\"guid\":\"" + guid(3, 0) + "\"}," +
+							"\"entity\":{\"name\":\"service-0\"}}}}]}");
+				} else {
+					StubCloudController.respond(exchange, "{\"total_results\":2,\"total_pages\":1," +
+							"\"next_url\":null,\"resources\":[" + createApp(0) + "," + createApp(1) + "]}");
+				}
+			}
+		});
+		client = controller.createClient();
+	}
+
+	@Test
+	public void shouldRequestPagesAsTheyAreIterated() throws Exception {
+		Iterator<CloudSpace> spaces = client.iterateSpaces();
+		Assert.assertTrue(requests.isEmpty());
+
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			Assert.assertEquals("space-" + i, spaces.next().getName());
+		}
+		Assert.assertEquals(1, requests.size());
+
+		Assert.assertEquals("space-" + PAGE_SIZE, spaces.next().getName());
+		Assert.assertEquals(2, requests.size());
+		Assert.assertTrue(requests.get(1).contains("page=2"));
+		// the iterator is abandoned here, the last page is never requested
+	}
+
+	@Test
+	public void shouldIterateAllPages() throws Exception {
+		List<String> names = new ArrayList<String>();
+		for (Iterator<CloudSpace> spaces = client.iterateSpaces(); spaces.hasNext(); ) {
+			names.add(spaces.next().getName());
+		}
+
+		Assert.assertEquals(PAGES * PAGE_SIZE, names.size());
+		Assert.assertEquals("space-" + (PAGES * PAGE_SIZE - 1), names.get(names.size() - 1));
+		Assert.assertEquals(PAGES, requests.size());
+	}
+
+	@Test
+	public void shouldFillInEachServiceOfferingOnce() throws Exception {
+		List<CloudService> services = client.getServices();
+
+		Assert.assertEquals(3, services.size());
+		Assert.assertEquals("service-0", services.get(0).getName());
+		Assert.assertEquals("small", services.get(0).getPlan());
+		Assert.assertEquals("mysql", services.get(0).getLabel());
+		Assert.assertEquals("5.5", services.get(1).getVersion());
+		Assert.assertEquals("large", services.get(1).getPlan());
+		Assert.assertTrue(services.get(2).isUserProvided());
+		Assert.assertEquals(2, requests.size());
+		Assert.assertEquals("/v2/services/" + guid(5, 0), requests.get(1));
+	}
+
+	@Test
+	public void shouldRequestServiceBindingsOfApplicationsWhenAccessed() throws Exception {
+		List<CloudApplication> apps = client.getApplications(false);
+
+		Assert.assertEquals(2, apps.size());
+		Assert.assertEquals("app-1", apps.get(1).getName());
+		Assert.assertEquals(1, requests.size());
+
+		Assert.assertEquals(Collections.singletonList("service-0"), apps.get(0).getServices());
+		Assert.assertEquals(2, requests.size());
+		Assert.assertEquals("/v2/apps/" + guid(6, 0) + "/service_bindings", requests.get(1));
+	}
+
+	private static String createApp(int i) {
+		return "{\"metadata\":{\"guid\":\"" + guid(6, i) + "\"},\"entity\":{\"name\":\"app-" + i +
+				"\",\"state\":\"STOPPED\",\"instances\":1,\"memory\":256,\"disk_quota\":1024," +
+				"\"environment_json\":{},\"service_bindings_url\":\"/v2/apps/" + guid(6, i) + "/service_bindings\"," +
+				"\"stack\":{\"metadata\":{\"guid\":\"" + guid(8, 0) + "\"},\"entity\":{\"name\":\"cflinuxfs2\"," +
+				"\"description\":\"\"}}}}";
+	}
+
+	private static String createServiceInstance(int i, String servicePlan) {
+		return "{\"metadata\":{\"guid\":\"" + guid(3, i) + "\"},\"entity\":{\"name\":\"service-" + i +
+				"\",\"credentials\":{\"uri\":\"mysql://\"}" +
+				(servicePlan != null ? ",\"service_plan\":" + servicePlan : "") + "}}";
+	}
+
+	private static String guid(int kind, int i) {
+		return String.format("00000000-0000-0000-%04d-%012d", kind, i);
+	}
+
+	private static String createSpacesPage(int page) {
+		StringBuilder json = new StringBuilder("{\"total_results\":" + PAGES * PAGE_SIZE + ",\"total_pages\":" + PAGES +
+				",\"prev_url\":null,\"next_url\":");
+		json.append(page < PAGES ? "\"/v2/spaces?inline-relations-depth=1&page=" + (page + 1) +
+				"&results-per-page=" + PAGE_SIZE + "\"" : "null");
+		json.append(",\"resources\":[");
+		for (int i = (page - 1) * PAGE_SIZE; i < page * PAGE_SIZE; i++) {
+			if (i > (page - 1) * PAGE_SIZE) {
+				json.append(',');
+			}
+			json.append("{\"metadata\":{\"guid\":\"").append(guid(1, i))
+					.append("\"},\"entity\":{\"name\":\"space-").append(i).append("\",\"organization\":{\"metadata\":")
+					.append("{\"guid\":\"").append(guid(2, i))
+					.append("\"},\"entity\":{\"name\":\"org-").append(i).append("\",\"billing_enabled\":false}}}}");
+		}
+		return json.append("]}").toString();
+	}
+}
@@ -0,0 +1,105 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.cloudfoundry.client.lib.StagingLogListener;
+import org.cloudfoundry.client.lib.StartingInfo;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Follows a staging log served by a stub controller over several connections, checking the offsets resumed from and
+ * the lines received.
+ */
+public class CloudControllerClientImplStagingLogTest {
+
+	private static final String LOG = "line one\nline two\r\nlast line";
+
+	private static final Pattern OFFSET_PATTERN = Pattern.compile("tail_offset=(\\d+)");
+
+	@Rule
+	public StubCloudController controller = new StubCloudController();
+
+	private CloudControllerClientImpl client;
+
+	private final List<Integer> offsets = Collections.synchronizedList(new ArrayList<Integer>());
+
+	// the end of the log sent by each connection, or -1 once the log is gone
+	private volatile List<Integer> responseEnds;
+
+	private final List<String> lines = new ArrayList<String>();
+
+	private volatile boolean completed;
+
+	private volatile Throwable error;
+
+	@Before
+	public void setUp() throws Exception {
+		controller.register("/staging_log", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				Matcher matcher = OFFSET_PATTERN.matcher(exchange.getRequestURI().getQuery());
+				Assert.assertTrue(matcher.find());
+				int offset = Integer.parseInt(matcher.group(1));
+				int end = responseEnds.get(offsets.size());
+				offsets.add(offset);
+				if (end < 0) {
+					StubCloudController.respond(exchange, 404, "text/plain", "");
+				} else {
+					StubCloudController.respond(exchange, 200, "text/plain", LOG.substring(offset, end));
+				}
+			}
+		});
+		client = controller.createClient();
+	}
+
+	@Test
+	public void shouldEmitLastLineWhenLogIsGoneAfterReconnect() throws Exception {
+		// the first connection ends within the second line, the second one within the last line
+		responseEnds = Arrays.asList(15, LOG.length(), -1);
+
+		streamStagingLogs();
+
+		Assert.assertEquals(Arrays.asList(0, 9, 19), offsets);
+		Assert.assertEquals(Arrays.asList("line one", "line two", "last line"), lines);
+		Assert.assertTrue(completed);
+		Assert.assertNull(error);
+	}
+
+	@Test
+	public void shouldEmitLastLineOnceWhenLogStopsGrowing() throws Exception {
+		responseEnds = Arrays.asList(LOG.length(), LOG.length());
+
+		streamStagingLogs();
+
+		Assert.assertEquals(Arrays.asList(0, 19), offsets);
+		Assert.assertEquals(Arrays.asList("line one", "line two", "last line"), lines);
+		Assert.assertTrue(completed);
+	}
+
+	private void streamStagingLogs() {
+		StartingInfo info = new StartingInfo(controller.getUrl() + "/staging_log?path=staging_task.log");
+		client.streamStagingLogs(info, new StagingLogListener() {
+			public void onLine(String line) {
+				lines.add(line);
+			}
+
+			public void onComplete() {
+				completed = true;
+			}
+
+			public void onError(Throwable exception) {
+				error = exception;
+			}
+		});
+	}
+}
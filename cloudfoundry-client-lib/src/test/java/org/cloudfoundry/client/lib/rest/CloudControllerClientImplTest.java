@@ -82,4 +82,22 @@ public class CloudControllerClientImplTest {
 		Assert.assertEquals("myhost", uriInfo.get("host"));
 	}
 
+	@Test
+	public void getRemainingPageUrls_derives_pages_from_next_url() throws Exception {
+		List<String> pageUrls = CloudControllerClientImpl.getRemainingPageUrls(
+				"/v2/apps?inline-relations-depth=1&page=2&results-per-page=50", 4);
+
+		Assert.assertEquals(Arrays.asList(
+				"/v2/apps?inline-relations-depth=1&page=2&results-per-page=50",
+				"/v2/apps?inline-relations-depth=1&page=3&results-per-page=50",
+				"/v2/apps?inline-relations-depth=1&page=4&results-per-page=50"), pageUrls);
+	}
+
+	@Test
+	public void getRemainingPageUrls_falls_back_when_pages_are_unknown() throws Exception {
+		Assert.assertNull(CloudControllerClientImpl.getRemainingPageUrls("/v2/apps?page=2", null));
+		Assert.assertNull(CloudControllerClientImpl.getRemainingPageUrls("/v2/apps?cursor=abc", 3));
+		Assert.assertNull(CloudControllerClientImpl.getRemainingPageUrls("/v2/apps?page=3", 3));
+	}
+
 }
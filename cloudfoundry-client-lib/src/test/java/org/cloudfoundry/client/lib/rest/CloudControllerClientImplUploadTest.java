@@ -0,0 +1,112 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.cloudfoundry.client.lib.archive.DirectoryApplicationArchive;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Uploads an application to a stub controller, checking how the bits are sent.
+ */
+public class CloudControllerClientImplUploadTest {
+
+	private static final String APP_GUID = "6b3ba8b4-0bb5-4d25-9b2e-1c4e4ad5e0a1";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Rule
+	public StubCloudController controller = new StubCloudController();
+
+	private CloudControllerClientImpl client;
+
+	private volatile String transferEncoding;
+
+	private volatile String contentType;
+
+	private volatile byte[] bits;
+
+	@Before
+	public void setUp() throws Exception {
+		controller.register("/v2/apps", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				if (exchange.getRequestURI().getPath().endsWith("/bits")) {
+					transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+					contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+					bits = read(exchange.getRequestBody());
+					StubCloudController.respond(exchange, "{\"metadata\":{\"guid\":\"job\"}," +
+							"\"entity\":{\"guid\":\"job\",\"status\":\"finished\"}}");
+				} else {
+					StubCloudController.respond(exchange, "{\"total_results\":1,\"total_pages\":1,\"next_url\":null," +
+							"\"resources\":[{\"metadata\":{\"guid\":\"" + APP_GUID + "\"}," +
+							"\"entity\":{\"name\":\"app\",\"stack\":{\"metadata\":{\"guid\":\"" + APP_GUID + "\"}," +
+							"\"entity\":{\"name\":\"s\"}}}}]}");
+				}
+			}
+		});
+		controller.register("/v2/resource_match", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				read(exchange.getRequestBody());
+				StubCloudController.respond(exchange, "[]");
+			}
+		});
+		client = controller.createClient();
+	}
+
+	@Test
+	public void shouldStreamPipelinedUpload() throws Exception {
+		client.uploadApplication("app", new DirectoryApplicationArchive(createApplication()), null);
+
+		Assert.assertEquals("chunked", transferEncoding);
+		assertMultipartBits();
+	}
+
+	@Test
+	public void shouldBufferUploadWithoutPipelining() throws Exception {
+		client.setUploadPipelining(0, 1024);
+		client.uploadApplication("app", new DirectoryApplicationArchive(createApplication()), null);
+
+		Assert.assertNull(transferEncoding);
+		assertMultipartBits();
+	}
+
+	private void assertMultipartBits() throws Exception {
+		String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+		String body = new String(bits, "ISO-8859-1");
+		Assert.assertTrue(contentType.startsWith("multipart/form-data"));
+		Assert.assertTrue(body.startsWith("--" + boundary + "\r\n"));
+		Assert.assertTrue(body.endsWith("--" + boundary + "--\r\n"));
+		Assert.assertTrue(body.contains("name=\"resources\""));
+		Assert.assertTrue(body.contains("name=\"application\""));
+		Assert.assertTrue(body.contains("index.html"));
+	}
+
+	private File createApplication() throws IOException {
+		File directory = temporaryFolder.newFolder("app");
+		OutputStream out = new FileOutputStream(new File(directory, "index.html"));
+		try {
+			out.write("<html></html>".getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		return directory;
+	}
+
+	private static byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FileCopyUtils.copy(in, out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,132 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.cloudfoundry.client.lib.FileContentListener;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Polls a {@link FileFollower} by hand over an in-memory file.
+ */
+public class FileFollowerTest {
+
+	private final RecordingListener listener = new RecordingListener();
+
+	private byte[] file = new byte[0];
+
+	private boolean ranges = true;
+
+	private boolean missing;
+
+	@Test
+	public void shouldReadAppendedContentFromOffset() throws Exception {
+		FileFollower follower = newFollower(2);
+		file = bytes("abcdef");
+		Assert.assertEquals(10, follower.poll());
+		Assert.assertEquals("cdef@2", listener.events.get(0));
+
+		file = bytes("abcdefgh");
+		follower.poll();
+		Assert.assertEquals(Arrays.asList("cdef@2", "gh@6"), listener.events);
+	}
+
+	@Test
+	public void shouldBackOffWhileIdleAndMissing() throws Exception {
+		FileFollower follower = newFollower(0);
+		file = bytes("a");
+		Assert.assertEquals(10, follower.poll());
+		Assert.assertEquals(20, follower.poll());
+		missing = true;
+		Assert.assertEquals(40, follower.poll());
+		Assert.assertEquals(80, follower.poll());
+		Assert.assertEquals(80, follower.poll());
+		missing = false;
+		file = bytes("ab");
+		Assert.assertEquals(10, follower.poll());
+		Assert.assertEquals(Arrays.asList("a@0", "b@1"), listener.events);
+	}
+
+	@Test
+	public void shouldReportTruncation() throws Exception {
+		FileFollower follower = newFollower(0);
+		file = bytes("abcdef");
+		follower.poll();
+		file = bytes("xy");
+		follower.poll();
+		follower.poll();
+		Assert.assertEquals(Arrays.asList("abcdef@0", "truncated", "xy@0"), listener.events);
+	}
+
+	@Test
+	public void shouldReportRotationPastOffset() throws Exception {
+		FileFollower follower = newFollower(0);
+		file = bytes("abcdef");
+		follower.poll();
+		file = bytes("uvwxyz-new");
+		follower.poll();
+		follower.poll();
+		Assert.assertEquals(Arrays.asList("abcdef@0", "truncated", "uvwxyz-new@0"), listener.events);
+	}
+
+	@Test
+	public void shouldFollowWithoutRangeSupport() throws Exception {
+		ranges = false;
+		FileFollower follower = newFollower(0);
+		file = bytes("abc");
+		follower.poll();
+		file = bytes("abcde");
+		follower.poll();
+		file = bytes("zzzzzz");
+		follower.poll();
+		Assert.assertEquals(Arrays.asList("abc@0", "de@3", "truncated"), listener.events);
+	}
+
+	private FileFollower newFollower(long offset) {
+		return new FileFollower(null, null, listener, offset, 10, 80) {
+			@Override
+			protected long getLength() {
+				checkMissing();
+				return ranges ? file.length : -1;
+			}
+
+			@Override
+			protected byte[] read(long start, long end) {
+				checkMissing();
+				Assert.assertTrue(ranges ? end >= 0 : start == 0 && end == -1);
+				return Arrays.copyOfRange(file, (int) start, end < 0 ? file.length : (int) end);
+			}
+		};
+	}
+
+	private void checkMissing() {
+		if (missing) {
+			throw new CloudFoundryException(HttpStatus.NOT_FOUND);
+		}
+	}
+
+	private static byte[] bytes(String content) throws Exception {
+		return content.getBytes("UTF-8");
+	}
+
+	private static class RecordingListener implements FileContentListener {
+
+		private final List<String> events = new ArrayList<String>();
+
+		public void onContent(byte[] content, long offset) {
+			events.add(new String(content) + "@" + offset);
+		}
+
+		public void onTruncated() {
+			events.add("truncated");
+		}
+
+		public void onError(Throwable exception) {
+			events.add("error");
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.cloudfoundry.client.lib.CloudCredentials;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.oauth2.OauthClient;
+import org.cloudfoundry.client.lib.util.RestUtil;
+import org.junit.rules.ExternalResource;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Local stub of a Cloud Controller, started before and stopped after each test. Tests register handlers for the
+ * paths they need and talk to the stub through a client authenticated with a bearer token.
+ */
+public class StubCloudController extends ExternalResource {
+
+	private final int threads;
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	public StubCloudController() {
+		this(4);
+	}
+
+	/**
+	 * @param threads the number of requests served at the same time
+	 */
+	public StubCloudController(int threads) {
+		this.threads = threads;
+	}
+
+	@Override
+	protected void before() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	@Override
+	protected void after() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	public void register(String path, HttpHandler handler) {
+		server.createContext(path, handler);
+	}
+
+	public URL getUrl() {
+		try {
+			return new URL("http://127.0.0.1:" + server.getAddress().getPort());
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public CloudControllerClientImpl createClient() {
+		URL controllerUrl = getUrl();
+		RestTemplate restTemplate = new RestUtil().createRestTemplate(null, false);
+		DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("token");
+		token.setTokenType("bearer");
+		token.setExpiration(new Date(System.currentTimeMillis() + 3600 * 1000L));
+		return new CloudControllerClientImpl(controllerUrl, restTemplate, new OauthClient(controllerUrl, restTemplate),
+				null, new CloudCredentials(token), (CloudSpace) null);
+	}
+
+	public static void respond(HttpExchange exchange, String json) throws IOException {
+		respond(exchange, 200, "application/json;charset=utf-8", json);
+	}
+
+	public static void respond(HttpExchange exchange, int status, String contentType, String text)
+			throws IOException {
+		byte[] response = text.getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, response.length > 0 ? response.length : -1);
+		OutputStream body = exchange.getResponseBody();
+		body.write(response);
+		body.close();
+	}
+}
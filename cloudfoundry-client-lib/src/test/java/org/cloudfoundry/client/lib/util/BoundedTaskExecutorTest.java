@@ -0,0 +1,71 @@
+package org.cloudfoundry.client.lib.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedTaskExecutorTest {
+	@Test
+	public void testResultsInTaskOrder() {
+		BoundedTaskExecutor executor = new BoundedTaskExecutor("test");
+		List<Integer> results = executor.invokeAll(Arrays.asList(new Sleep(1, 30), new Sleep(2, 0), new Sleep(3, 10)), 3);
+
+		Assert.assertEquals(Arrays.asList(1, 2, 3), results);
+	}
+
+	@Test
+	public void testFailureWaitsForRunningTasks() throws Exception {
+		BoundedTaskExecutor executor = new BoundedTaskExecutor("test");
+		final CountDownLatch started = new CountDownLatch(1);
+		final AtomicBoolean finished = new AtomicBoolean();
+		Callable<Integer> slow = new Callable<Integer>() {
+			public Integer call() {
+				started.countDown();
+				// ignores interruption, like a blocked socket read
+				long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+				while (System.nanoTime() < end) {
+					Thread.yield();
+				}
+				finished.set(true);
+				return 1;
+			}
+		};
+		Callable<Integer> failing = new Callable<Integer>() {
+			public Integer call() throws Exception {
+				started.await();
+				throw new IllegalStateException("failed");
+			}
+		};
+
+		try {
+			executor.invokeAll(Arrays.asList(slow, failing), 2);
+			Assert.fail("Expected the failure to be rethrown");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("failed", e.getMessage());
+		}
+		Assert.assertTrue(finished.get());
+	}
+
+	private static class Sleep implements Callable<Integer> {
+
+		private final int result;
+
+		private final long millis;
+
+		Sleep(int result, long millis) {
+			this.result = result;
+			this.millis = millis;
+		}
+
+		public Integer call() throws InterruptedException {
+			Thread.sleep(millis);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package org.cloudfoundry.client.lib.util;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonUtilTest {
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testReadResourcePage() throws Exception {
+		String json = "{\"total_results\":3,\"total_pages\":2,\"prev_url\":null," +
+				"\"next_url\":\"/v2/apps?page=2\",\"resources\":[" +
+				"{\"metadata\":{\"guid\":\"1\"},\"entity\":{\"name\":\"a\",\"urls\":[\"a.com\"]}}," +
+				"{\"metadata\":{\"guid\":\"2\"},\"entity\":{\"name\":\"b\",\"extra\":{\"nested\":[1,2]}}}]}";
+
+		Map<String, Object> page = JsonUtil.readResourcePage(new ByteArrayInputStream(json.getBytes("UTF-8")));
+
+		Assert.assertEquals(2, page.get("total_pages"));
+		Assert.assertEquals("/v2/apps?page=2", page.get("next_url"));
+		Assert.assertFalse(page.containsKey("total_results"));
+		List<Map<String, Object>> resources = (List<Map<String, Object>>) page.get("resources");
+		Assert.assertEquals(2, resources.size());
+		Map<String, Object> entity = (Map<String, Object>) resources.get(1).get("entity");
+		Assert.assertEquals("b", entity.get("name"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testReadTypedResourcePage() throws Exception {
+		String guid = "6b3ba8b4-0bb5-4d25-9b2e-1c4e4ad5e0a1";
+		String json = "{\"total_pages\":1,\"next_url\":null,\"resources\":[{\"metadata\":{\"guid\":\"" + guid +
+				"\",\"url\":\"/v2/spaces/1\",\"created_at\":\"2013-09-19T21:56:36+00:00\",\"updated_at\":null}," +
+				"\"entity\":{\"developers\":[{\"metadata\":{\"guid\":\"d\"},\"entity\":{\"name\":\"x\"}}]," +
+				"\"name\":\"dev\",\"organization\":{\"metadata\":{\"guid\":\"" + guid + "\"},\"entity\":" +
+				"{\"name\":\"org\",\"quota_definition\":{\"entity\":{}},\"billing_enabled\":true}}}}]}";
+
+		Map<String, Object> page = JsonUtil.readResourcePage(new ByteArrayInputStream(json.getBytes("UTF-8")),
+				CloudEntityResourceMapper.SPACE_READER);
+
+		List<CloudSpace> spaces = (List<CloudSpace>) page.get("resources");
+		Assert.assertEquals(1, spaces.size());
+		CloudSpace space = spaces.get(0);
+		Assert.assertEquals("dev", space.getName());
+		Assert.assertEquals(UUID.fromString(guid), space.getMeta().getGuid());
+		Assert.assertEquals(1379627796000L, space.getMeta().getCreated().getTime());
+		Assert.assertNull(space.getMeta().getUpdated());
+		Assert.assertEquals("org", space.getOrganization().getName());
+		Assert.assertTrue(space.getOrganization().isBillingEnabled());
+	}
+
+	@Test
+	public void testReadLastResourcePage() throws Exception {
+		String json = "{\"total_pages\":1,\"next_url\":null,\"resources\":[]}";
+
+		Map<String, Object> page = JsonUtil.readResourcePage(new ByteArrayInputStream(json.getBytes("UTF-8")));
+
+		Assert.assertNull(page.get("next_url"));
+		Assert.assertEquals(0, ((List<?>) page.get("resources")).size());
+	}
+}
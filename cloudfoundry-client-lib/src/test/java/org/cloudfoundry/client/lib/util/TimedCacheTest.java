@@ -0,0 +1,38 @@
+package org.cloudfoundry.client.lib.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimedCacheTest {
+	@Test
+	public void testPutAndGet() {
+		TimedCache<String, String> cache = new TimedCache<String, String>(60000);
+		cache.put("a", "1");
+
+		Assert.assertEquals("1", cache.get("a"));
+		Assert.assertNull(cache.get("b"));
+
+		cache.remove("a");
+		Assert.assertNull(cache.get("a"));
+	}
+
+	@Test
+	public void testExpiry() throws InterruptedException {
+		TimedCache<String, String> cache = new TimedCache<String, String>(10);
+		cache.put("a", "1");
+		Thread.sleep(20);
+
+		Assert.assertNull(cache.get("a"));
+	}
+
+	@Test
+	public void testDisabled() {
+		TimedCache<String, String> cache = new TimedCache<String, String>(60000);
+		cache.put("a", "1");
+		cache.setTimeToLive(0);
+		Assert.assertNull(cache.get("a"));
+
+		cache.put("a", "1");
+		Assert.assertNull(cache.get("a"));
+	}
+}
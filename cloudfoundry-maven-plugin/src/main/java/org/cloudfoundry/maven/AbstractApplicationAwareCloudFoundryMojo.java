@@ -25,6 +25,7 @@ import org.apache.maven.artifact.resolver.ArtifactResolver;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.cloudfoundry.client.lib.CloudFoundryClient;
 import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.cloudfoundry.client.lib.StagingLogListener;
 import org.cloudfoundry.client.lib.StartingInfo;
 import org.cloudfoundry.client.lib.domain.CloudApplication;
 import org.cloudfoundry.client.lib.domain.CloudDomain;
@@ -590,15 +591,27 @@ abstract class AbstractApplicationAwareCloudFoundryMojo extends AbstractCloudFou
 
 			responseErrorHandler.addExpectedStatus(HttpStatus.NOT_FOUND);
 
-			int offset = 0;
-			String staging = client.getStagingLogs(startingInfo, offset);
-			while (staging != null) {
-				getLog().info(staging);
-				offset += staging.length();
-				staging = client.getStagingLogs(startingInfo, offset);
-			}
+			final Throwable[] failure = new Throwable[1];
+			client.streamStagingLogs(startingInfo, new StagingLogListener() {
+				public void onLine(String line) {
+					getLog().info(line);
+				}
+
+				public void onComplete() {
+				}
+
+				public void onError(Throwable exception) {
+					failure[0] = exception;
+				}
+			});
 
 			responseErrorHandler.clearExpectedStatus();
+
+			if (failure[0] instanceof RuntimeException) {
+				throw (RuntimeException) failure[0];
+			} else if (failure[0] != null) {
+				throw new IllegalStateException("Error while reading the staging log.", failure[0]);
+			}
 		} else {
 			getLog().error("Staging log does not exist.");
 		}
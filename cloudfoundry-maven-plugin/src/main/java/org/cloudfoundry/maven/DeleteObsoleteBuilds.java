@@ -117,7 +117,7 @@ public class DeleteObsoleteBuilds extends AbstractApplicationAwareCloudFoundryMo
     }
 
     private List<CloudApplication> getAllAppInstances() {
-        List<CloudApplication> applications = getClient().getApplications();
+        List<CloudApplication> applications = getClient().getApplications(false);
         List<CloudApplication> appBuilds = new ArrayList<>();
         for (CloudApplication application : applications) {
             if (isBuildOfApp(application.getName())) {